@@ -0,0 +1,141 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Фоновый поток записи для {@link FileBackedTaskManager}.
+ * Операции выполняются строго в порядке поступления. Очередь ограничена:
+ * если поток записи отстает больше чем на maxLag операций, вызывающий поток
+ * блокируется до освобождения места.
+ */
+class AsyncPersistenceWriter implements AutoCloseable {
+
+    // Операция ввода-вывода, выполняемая в фоновом потоке
+    interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static final IoAction STOP = () -> {
+    };
+
+    private final BlockingQueue<IoAction> queue;
+    private final Thread thread;
+    private final Object progressLock = new Object();
+    private long submitted;
+    private long completed;
+    private IOException failure;
+    private boolean closed;
+
+    AsyncPersistenceWriter(String name, int maxLag) {
+        this.queue = new ArrayBlockingQueue<>(maxLag);
+        this.thread = new Thread(this::runLoop, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // Постановка операции в очередь; блокируется, если очередь заполнена
+    void submit(IoAction action) throws IOException {
+        synchronized (progressLock) {
+            if (closed) {
+                throw new IllegalStateException("Поток записи уже остановлен");
+            }
+            rethrowFailure();
+            submitted++;
+        }
+        try {
+            queue.put(action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (progressLock) {
+                submitted--;
+            }
+            throw new IOException("Прервано ожидание места в очереди записи", e);
+        }
+    }
+
+    // Ожидание записи всех операций, поставленных в очередь до вызова
+    void awaitPersisted() throws IOException {
+        synchronized (progressLock) {
+            long target = submitted;
+            while (completed < target && failure == null) {
+                try {
+                    progressLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Прервано ожидание фоновой записи", e);
+                }
+            }
+            rethrowFailure();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (progressLock) {
+            if (closed) {
+                return;
+            }
+        }
+        try {
+            awaitPersisted();
+        } finally {
+            synchronized (progressLock) {
+                closed = true;
+            }
+            try {
+                queue.put(STOP);
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runLoop() {
+        while (true) {
+            IoAction action;
+            try {
+                action = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (action == STOP) {
+                return;
+            }
+
+            IOException error = null;
+            synchronized (progressLock) {
+                // После первой ошибки дальнейшие операции не выполняются,
+                // чтобы не записать изменения поверх пропущенных
+                if (failure != null) {
+                    error = failure;
+                }
+            }
+            if (error == null) {
+                try {
+                    action.run();
+                } catch (IOException e) {
+                    error = e;
+                } catch (RuntimeException e) {
+                    error = new IOException(e);
+                }
+            }
+
+            synchronized (progressLock) {
+                if (error != null && failure == null) {
+                    failure = error;
+                }
+                completed++;
+                progressLock.notifyAll();
+            }
+        }
+    }
+
+    private void rethrowFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Ошибка фоновой записи", failure);
+        }
+    }
+}
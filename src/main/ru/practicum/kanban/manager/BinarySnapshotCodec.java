@@ -0,0 +1,265 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Двоичный снимок: сигнатура и версия, затем записи задач
+ * (байт типа, varint id, байт статуса, строки с префиксом длины в UTF-8,
+ * varint id эпика для подзадач), маркер конца, список истории и необязательный
+ * хвост: байт {@link #NEXT_ID_TAG} и varint следующего id менеджера.
+ */
+class BinarySnapshotCodec implements SnapshotCodec {
+    static final byte[] MAGIC = {'K', 'B', 'N', 'S'};
+    static final int VERSION = 1;
+
+    // Коды типов задач в файле
+    static final int TYPE_TASK = 1;
+    static final int TYPE_EPIC = 2;
+    static final int TYPE_SUBTASK = 3;
+    static final int END_OF_RECORDS = 0;
+    // Метка следующего id после истории; в снимках без нее дальше идет только контрольная сумма
+    static final int NEXT_ID_TAG = 'N';
+
+    // Коды статусов в файле
+    static final int STATUS_NEW = 0;
+    static final int STATUS_IN_PROGRESS = 1;
+    static final int STATUS_DONE = 2;
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends Task> records, List<Integer> historyIds, int nextId)
+            throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(out, 64 * 1024);
+        buffer.write(MAGIC);
+        buffer.write(VERSION);
+
+        for (Task task : records) {
+            TaskType type = CsvSnapshotCodec.getTaskType(task);
+            buffer.write(typeCode(type));
+            writeVarInt(buffer, task.getId());
+            buffer.write(statusCode(task.getStatus()));
+            writeString(buffer, task.getName());
+            writeString(buffer, task.getDescription());
+            if (type == TaskType.SUBTASK) {
+                writeVarInt(buffer, ((Subtask) task).getEpicId());
+            }
+        }
+        buffer.write(END_OF_RECORDS);
+
+        writeVarInt(buffer, historyIds.size());
+        for (int id : historyIds) {
+            writeVarInt(buffer, id);
+        }
+        if (nextId > 0) {
+            buffer.write(NEXT_ID_TAG);
+            writeVarInt(buffer, nextId);
+        }
+        buffer.flush();
+    }
+
+    @Override
+    public void read(InputStream in, Sink sink) throws IOException {
+        InputStream buffer = new BufferedInputStream(in, 64 * 1024);
+        byte[] magic = buffer.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Файл не является двоичным снимком");
+        }
+        int version = buffer.read();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия двоичного снимка: " + version);
+        }
+
+        int typeCode;
+        while ((typeCode = readByte(buffer)) != END_OF_RECORDS) {
+            int id = readVarInt(buffer);
+            TaskStatus status = statusFromCode(readByte(buffer));
+            String name = readString(buffer);
+            String description = readString(buffer);
+
+            int epicId = typeCode == TYPE_SUBTASK ? readVarInt(buffer) : 0;
+
+            emitTask(sink, typeCode, id, status, name, description, epicId);
+        }
+
+        int historySize = readVarInt(buffer);
+        List<Integer> historyIds = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            historyIds.add(readVarInt(buffer));
+        }
+        if (buffer.read() == NEXT_ID_TAG) {
+            sink.onNextId(readVarInt(buffer));
+        }
+        sink.onHistory(historyIds);
+    }
+
+    /**
+     * Чтение снимка прямо из буфера (например, отображенного в память файла).
+     * Идентификаторы, типы и статусы разбираются без промежуточных объектов,
+     * строки создаются только для названий и описаний.
+     */
+    void read(ByteBuffer buffer, Sink sink) throws IOException {
+        try {
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    throw new IOException("Файл не является двоичным снимком");
+                }
+            }
+            int version = buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия двоичного снимка: " + version);
+            }
+
+            byte[] scratch = new byte[256];
+            int typeCode;
+            while ((typeCode = buffer.get() & 0xFF) != END_OF_RECORDS) {
+                int id = readVarInt(buffer);
+                TaskStatus status = statusFromCode(buffer.get() & 0xFF);
+                int nameLength = readVarInt(buffer);
+                scratch = ensureCapacity(scratch, nameLength);
+                buffer.get(scratch, 0, nameLength);
+                String name = new String(scratch, 0, nameLength, StandardCharsets.UTF_8);
+                int descriptionLength = readVarInt(buffer);
+                scratch = ensureCapacity(scratch, descriptionLength);
+                buffer.get(scratch, 0, descriptionLength);
+                String description = new String(scratch, 0, descriptionLength, StandardCharsets.UTF_8);
+
+                int epicId = typeCode == TYPE_SUBTASK ? readVarInt(buffer) : 0;
+
+                emitTask(sink, typeCode, id, status, name, description, epicId);
+            }
+
+            int historySize = readVarInt(buffer);
+            List<Integer> historyIds = new ArrayList<>(historySize);
+            for (int i = 0; i < historySize; i++) {
+                historyIds.add(readVarInt(buffer));
+            }
+            if (buffer.hasRemaining() && buffer.get(buffer.position()) == NEXT_ID_TAG) {
+                buffer.get();
+                sink.onNextId(readVarInt(buffer));
+            }
+            sink.onHistory(historyIds);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Неожиданный конец двоичного снимка");
+        }
+    }
+
+    private static void emitTask(Sink sink, int typeCode, int id, TaskStatus status,
+                                 String name, String description, int epicId) throws IOException {
+        Task task;
+        try {
+            task = switch (typeCode) {
+                case TYPE_TASK -> new Task(name, description);
+                case TYPE_EPIC -> new Epic(name, description);
+                case TYPE_SUBTASK -> new Subtask(name, description, epicId);
+                default -> throw new IOException("Неизвестный тип записи: " + typeCode);
+            };
+            task.setId(id);
+            task.setStatus(status);
+        } catch (IllegalArgumentException e) {
+            // Некорректная запись пропускается так же, как в CSV
+            sink.onSkippedRecord("id=" + id + ", name='" + name + "'");
+            return;
+        }
+        sink.onTask(task);
+    }
+
+    static int typeCode(TaskType type) {
+        return switch (type) {
+            case TASK -> TYPE_TASK;
+            case EPIC -> TYPE_EPIC;
+            case SUBTASK -> TYPE_SUBTASK;
+        };
+    }
+
+    static int statusCode(TaskStatus status) {
+        return switch (status) {
+            case NEW -> STATUS_NEW;
+            case IN_PROGRESS -> STATUS_IN_PROGRESS;
+            case DONE -> STATUS_DONE;
+        };
+    }
+
+    static TaskStatus statusFromCode(int code) throws IOException {
+        return switch (code) {
+            case STATUS_NEW -> TaskStatus.NEW;
+            case STATUS_IN_PROGRESS -> TaskStatus.IN_PROGRESS;
+            case STATUS_DONE -> TaskStatus.DONE;
+            default -> throw new IOException("Неизвестный код статуса: " + code);
+        };
+    }
+
+    // Запись неотрицательного числа по 7 бит в байте
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Слишком длинное число varint");
+    }
+
+    static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Слишком длинное число varint");
+    }
+
+    private static byte[] ensureCapacity(byte[] scratch, int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Некорректная длина строки: " + length);
+        }
+        return length <= scratch.length ? scratch : new byte[Math.max(length, scratch.length * 2)];
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        int length = readVarInt(in);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Неожиданный конец двоичного снимка");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Неожиданный конец двоичного снимка");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,131 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Чтение потока, записанного {@link BlockCompressedOutputStream}.
+ * <p>
+ * Блоки независимы, поэтому при parallelism &gt; 1 следующие блоки читаются с опережением
+ * и распаковываются в ForkJoinPool, пока потребитель разбирает текущий; порядок данных
+ * сохраняется. Чтение заканчивается на маркере конца, следующие за ним байты
+ * (контрольная сумма файла) не читаются.
+ */
+class BlockCompressedInputStream extends InputStream {
+    // Защита от поврежденного заголовка: блоки больше этого размера не пишутся
+    static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final DataInputStream in;
+    private final CompressionCodec codec;
+    private final ForkJoinPool pool;
+    private final int readAhead;
+    private final Queue<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block = EMPTY;
+    private int position;
+    private boolean endReached;
+
+    BlockCompressedInputStream(InputStream in, CompressionCodec codec, int parallelism) {
+        this.in = new DataInputStream(in);
+        this.codec = codec;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        // Опережение в два раза больше числа потоков, чтобы потоки не простаивали
+        this.readAhead = parallelism > 1 ? parallelism * 2 : 1;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == block.length && !nextBlock()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (position == block.length && !nextBlock()) {
+            return -1;
+        }
+        int count = Math.min(length, block.length - position);
+        System.arraycopy(block, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        in.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        while (!endReached && pending.size() < readAhead) {
+            readBlock();
+        }
+        ForkJoinTask<byte[]> next = pending.poll();
+        if (next == null) {
+            return false;
+        }
+        try {
+            block = next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Прервана распаковка снимка", e);
+        } catch (ExecutionException e) {
+            // ForkJoinTask оборачивает проверяемое исключение задачи
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+            }
+            throw new IOException("Ошибка распаковки снимка", e.getCause());
+        }
+        position = 0;
+        return true;
+    }
+
+    // Чтение сжатого блока и постановка его распаковки в очередь
+    private void readBlock() throws IOException {
+        int rawLength;
+        int compressedLength;
+        try {
+            rawLength = in.readInt();
+            compressedLength = in.readInt();
+        } catch (EOFException e) {
+            throw new IOException("Сжатый снимок обрывается до маркера конца", e);
+        }
+        if (rawLength == 0) {
+            endReached = true;
+            return;
+        }
+        if (rawLength < 0 || rawLength > MAX_BLOCK_SIZE || compressedLength < 0) {
+            throw new IOException("Поврежден заголовок блока сжатого снимка");
+        }
+
+        byte[] compressed = new byte[compressedLength];
+        in.readFully(compressed);
+        ForkJoinTask<byte[]> task = ForkJoinTask.adapt(() -> {
+            byte[] raw = new byte[rawLength];
+            codec.decompress(compressed, 0, compressedLength, raw);
+            return raw;
+        });
+        if (pool != null) {
+            pool.execute(task);
+        } else {
+            task.quietlyInvoke();
+        }
+        pending.add(task);
+    }
+}
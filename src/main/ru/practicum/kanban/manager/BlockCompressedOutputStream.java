@@ -0,0 +1,88 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Поток, сжимающий данные независимыми блоками.
+ * <p>
+ * Каждый блок записывается как заголовок (исходный и сжатый размер, по 4 байта)
+ * и сжатые данные; блок с нулевым исходным размером завершает последовательность.
+ * Метод {@link #finish()} дописывает последний блок и маркер конца, не закрывая
+ * нижележащий поток: после сжатых данных {@link SnapshotFiles} пишет контрольную сумму.
+ */
+class BlockCompressedOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final CompressionCodec codec;
+    private final byte[] block;
+    private final byte[] header = new byte[8];
+    private int position;
+    private boolean finished;
+
+    BlockCompressedOutputStream(OutputStream out, CompressionCodec codec, int blockSize) {
+        this.out = out;
+        this.codec = codec;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == block.length) {
+            writeBlock();
+        }
+        block[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == block.length) {
+                writeBlock();
+            }
+            int count = Math.min(length, block.length - position);
+            System.arraycopy(data, offset, block, position, count);
+            position += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    // Блок сжимается только целиком, поэтому flush() лишь передает дальше уже сжатые данные
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        writeBlock();
+        writeHeader(0, 0);
+        out.flush();
+        finished = true;
+    }
+
+    private void writeBlock() throws IOException {
+        if (position == 0) {
+            return;
+        }
+        byte[] compressed = codec.compress(block, 0, position);
+        writeHeader(position, compressed.length);
+        out.write(compressed);
+        position = 0;
+    }
+
+    private void writeHeader(int rawLength, int compressedLength) throws IOException {
+        putInt(rawLength, 0);
+        putInt(compressedLength, 4);
+        out.write(header);
+    }
+
+    private void putInt(int value, int offset) {
+        header[offset] = (byte) (value >>> 24);
+        header[offset + 1] = (byte) (value >>> 16);
+        header[offset + 2] = (byte) (value >>> 8);
+        header[offset + 3] = (byte) value;
+    }
+}
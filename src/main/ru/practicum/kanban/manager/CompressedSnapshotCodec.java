@@ -0,0 +1,104 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Task;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сжатый снимок: сигнатура, версия, код алгоритма сжатия и формат содержимого,
+ * затем снимок в формате CSV или BINARY, сжатый независимыми блоками
+ * (см. {@link BlockCompressedOutputStream}).
+ * <p>
+ * Независимость блоков позволяет распаковывать их параллельно и пропускать
+ * ненужные блоки по заголовкам, не распаковывая их. При загрузке алгоритм
+ * выбирается по коду из заголовка: сначала проверяется кодек из настроек,
+ * затем встроенные {@link StandardCompression}.
+ */
+class CompressedSnapshotCodec implements SnapshotCodec {
+    static final byte[] MAGIC = {'K', 'B', 'N', 'Z'};
+    static final int VERSION = 1;
+    static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+    // Коды формата содержимого
+    private static final int CONTENT_CSV = 0;
+    private static final int CONTENT_BINARY = 1;
+
+    private final SnapshotFormat format;
+    private final CompressionCodec compression;
+    private final int blockSize;
+    private final int parallelism;
+
+    CompressedSnapshotCodec(SnapshotFormat format, CompressionCodec compression, int blockSize, int parallelism) {
+        this.format = format;
+        this.compression = compression;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+    }
+
+    // Кодек только для чтения; compression - кодек из настроек или null
+    static CompressedSnapshotCodec reader(CompressionCodec compression, int parallelism) {
+        return new CompressedSnapshotCodec(SnapshotFormat.CSV, compression, DEFAULT_BLOCK_SIZE, parallelism);
+    }
+
+    // Является ли файл сжатым снимком
+    static boolean isCompressed(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends Task> records, List<Integer> historyIds,
+                      int nextId) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(compression.id());
+        out.write(format == SnapshotFormat.BINARY ? CONTENT_BINARY : CONTENT_CSV);
+
+        BlockCompressedOutputStream blocks = new BlockCompressedOutputStream(out, compression, blockSize);
+        format.codec().write(blocks, records, historyIds, nextId);
+        blocks.finish();
+    }
+
+    @Override
+    public void read(InputStream in, Sink sink) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        header.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Файл не является сжатым снимком");
+        }
+        int version = header.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия сжатого снимка: " + version);
+        }
+        CompressionCodec codec = resolve(header.readUnsignedByte());
+        SnapshotFormat content = switch (header.readUnsignedByte()) {
+            case CONTENT_CSV -> SnapshotFormat.CSV;
+            case CONTENT_BINARY -> SnapshotFormat.BINARY;
+            default -> throw new IOException("Неизвестный формат содержимого сжатого снимка");
+        };
+
+        try (InputStream blocks = new BlockCompressedInputStream(in, codec, parallelism)) {
+            content.codec().read(blocks, sink);
+        }
+    }
+
+    private CompressionCodec resolve(int id) throws IOException {
+        if (compression != null && compression.id() == id) {
+            return compression;
+        }
+        CompressionCodec standard = StandardCompression.byId(id);
+        if (standard == null) {
+            throw new IOException("Неизвестный алгоритм сжатия снимка: " + id);
+        }
+        return standard;
+    }
+}
@@ -0,0 +1,21 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.IOException;
+
+/**
+ * Алгоритм сжатия блоков снимка (см. {@link PersistenceSettings#withCompression}).
+ * <p>
+ * Каждый блок сжимается независимо, поэтому реализация не должна хранить состояние
+ * между вызовами: при параллельной загрузке блоки распаковываются в разных потоках.
+ * Встроенные алгоритмы - {@link StandardCompression}.
+ */
+public interface CompressionCodec {
+
+    // Код алгоритма в заголовке файла (1-255), по нему выбирается кодек при загрузке
+    int id();
+
+    byte[] compress(byte[] data, int offset, int length) throws IOException;
+
+    // Распаковка блока в target; размер исходных данных известен из заголовка блока
+    void decompress(byte[] data, int offset, int length, byte[] target) throws IOException;
+}
@@ -0,0 +1,185 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Потокобезопасный менеджер задач в памяти.
+ * <p>
+ * Хранилище защищено блокировкой чтения-записи: чтения (getAllTasks, getEpicSubtasks,
+ * экспорт и т.д.) выполняются параллельно, изменения - по одному. Просмотр задачи
+ * тоже идет под блокировкой чтения: история просмотров защищена своим монитором
+ * (см. {@link SynchronizedHistoryManager}), поэтому getTask не ждет других читателей,
+ * а getHistory не блокирует хранилище. Порядок захвата всегда один: хранилище, затем история.
+ * <p>
+ * Возвращаемые задачи - копии, их можно изменять без блокировок.
+ * Импорт выполняется под блокировкой записи целиком, включая чтение потока.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    public ConcurrentTaskManager() {
+        super(new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    @Override
+    public int createTask(String name, String description) {
+        return write(() -> super.createTask(name, description));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return read(super::getAllTasks);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return read(() -> super.getTask(id));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> super.updateTask(task));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        write(() -> super.deleteTask(id));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(super::deleteAllTasks);
+    }
+
+    @Override
+    public int createEpic(String name, String description) {
+        return write(() -> super.createEpic(name, description));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(super::getAllEpics);
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return read(() -> super.getEpic(id));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        write(() -> super.deleteEpic(id));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(super::deleteAllEpics);
+    }
+
+    @Override
+    public void createSubtask(String name, String description, int epicId) {
+        write(() -> super.createSubtask(name, description, epicId));
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return read(super::getAllSubtasks);
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return read(() -> super.getSubtask(id));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        write(() -> super.deleteSubtask(id));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(super::deleteAllSubtasks);
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        return read(() -> super.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public Task getAny(int id) {
+        return read(() -> super.getAny(id));
+    }
+
+    @Override
+    public List<Integer> importTasks(Stream<? extends Task> items) {
+        return write(() -> super.importTasks(items));
+    }
+
+    @Override
+    public List<Integer> importSubtasks(int epicId, Stream<? extends Subtask> subtasks) {
+        return write(() -> super.importSubtasks(epicId, subtasks));
+    }
+
+    // Экспорт видит согласованное состояние: изменения ждут его завершения
+    @Override
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        readLock.lock();
+        try {
+            super.export(format, out);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> action) {
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Потоковое чтение записей CSV. Запись заканчивается переводом строки вне
+ * кавычек, поэтому поля в кавычках могут содержать переводы строк.
+ * Файл целиком в память не загружается: используется буфер фиксированного
+ * размера и один переиспользуемый StringBuilder.
+ */
+class CsvRecordReader implements Closeable {
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final StringBuilder record = new StringBuilder();
+    private int position;
+    private int limit;
+
+    CsvRecordReader(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvRecordReader(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Возвращает следующую запись без завершающего перевода строки,
+     * пустую строку для пустой записи или null в конце потока.
+     * Оборванная запись с незакрытой кавычкой в конце потока отбрасывается.
+     */
+    String nextRecord() throws IOException {
+        CharSequence next = nextRecordChars();
+        return next == null ? null : next.toString();
+    }
+
+    /**
+     * То же без создания строки: возвращает внутренний буфер,
+     * содержимое которого действительно до следующего вызова.
+     */
+    CharSequence nextRecordChars() throws IOException {
+        record.setLength(0);
+        boolean inQuotes = false;
+        boolean hasData = false;
+
+        while (true) {
+            if (position == limit) {
+                int read = reader.read(buffer, 0, buffer.length);
+                if (read <= 0) {
+                    position = 0;
+                    limit = 0;
+                    return hasData && !inQuotes ? finishRecord() : null;
+                }
+                position = 0;
+                limit = read;
+            }
+
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"') {
+                    inQuotes = !inQuotes;
+                } else if (c == '\n' && !inQuotes) {
+                    record.append(buffer, start, position - start);
+                    position++;
+                    return finishRecord();
+                }
+                position++;
+            }
+            record.append(buffer, start, position - start);
+            hasData = true;
+        }
+    }
+
+    private CharSequence finishRecord() {
+        int length = record.length();
+        if (length > 0 && record.charAt(length - 1) == '\r') {
+            record.setLength(length - 1);
+        }
+        return record;
+    }
+
+    // Запись из одних пробельных символов
+    static boolean isBlank(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,175 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Потоковая запись строк CSV без промежуточных объектов.
+ * <p>
+ * Поля кодируются в UTF-8 прямо в переиспользуемый байтовый буфер, который
+ * сбрасывается в поток по заполнении. Числа пишутся цифрами без Integer.toString,
+ * необходимость кавычек определяется одним проходом по строке, а кавычки
+ * удваиваются во время копирования. На строку снимка память не выделяется.
+ */
+class CsvRowEncoder {
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // Самое длинное представление int и самый длинный символ UTF-8 помещаются с запасом
+    private static final int MAX_ATOM_BYTES = 16;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    CsvRowEncoder(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvRowEncoder(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, MAX_ATOM_BYTES)];
+    }
+
+    // Строка задачи в формате id,type,name,status,description,epic
+    void writeTask(Task task) throws IOException {
+        TaskType type = CsvSnapshotCodec.getTaskType(task);
+        writeInt(task.getId());
+        writeByte(',');
+        writeAscii(type.name());
+        writeByte(',');
+        writeField(task.getName());
+        writeByte(',');
+        writeAscii(task.getStatus().name());
+        writeByte(',');
+        writeField(task.getDescription());
+        writeByte(',');
+        if (type == TaskType.SUBTASK) {
+            writeInt(((Subtask) task).getEpicId());
+        }
+        writeByte('\n');
+    }
+
+    // Поле с экранированием по правилам CSV
+    void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quoted = needsQuoting(value);
+        if (quoted) {
+            writeByte('"');
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writeByte('"');
+                writeByte('"');
+            } else if (c < 0x80) {
+                writeByte(c);
+            } else {
+                i = writeNonAscii(value, i);
+            }
+        }
+        if (quoted) {
+            writeByte('"');
+        }
+    }
+
+    // Строка из символов ASCII без экранирования (имена констант)
+    void writeAscii(String value) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            writeByte(value.charAt(i));
+        }
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureCapacity(MAX_ATOM_BYTES);
+        if (value == Integer.MIN_VALUE) {
+            writeAscii("-2147483648");
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int end = position + digits(value);
+        int i = end;
+        do {
+            buffer[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        position = end;
+    }
+
+    void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    // Сброс буфера в поток (сам поток не сбрасывается)
+    void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    // Один проход: нужны ли кавычки (запятая, кавычка, перевод строки или возврат каретки)
+    static boolean needsQuoting(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Кодирование символа вне ASCII; возвращает индекс последнего обработанного символа
+    int writeNonAscii(String value, int index) throws IOException {
+        ensureCapacity(4);
+        char c = value.charAt(index);
+        if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            // Непарный суррогат заменяется так же, как это делает String.getBytes
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.length - position < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private static int digits(int value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+}
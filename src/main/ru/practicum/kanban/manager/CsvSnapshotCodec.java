@@ -0,0 +1,172 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Снимок в формате CSV: заголовок, по строке на задачу, пустая строка,
+ * идентификаторы истории через запятую и служебная строка "#NEXT_ID:" со следующим id.
+ */
+class CsvSnapshotCodec implements SnapshotCodec {
+    static final String HEADER = "id,type,name,status,description,epic";
+    static final String NEXT_ID_PREFIX = "#NEXT_ID:";
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends Task> records, List<Integer> historyIds, int nextId)
+            throws IOException {
+        CsvRowEncoder encoder = new CsvRowEncoder(out);
+
+        // Заголовок CSV
+        encoder.writeAscii(HEADER);
+        encoder.writeByte('\n');
+
+        for (Task task : records) {
+            encoder.writeTask(task);
+        }
+
+        // Сохраняем историю
+        encoder.writeByte('\n');
+        for (int i = 0; i < historyIds.size(); i++) {
+            if (i > 0) {
+                encoder.writeByte(',');
+            }
+            encoder.writeInt(historyIds.get(i));
+        }
+        encoder.writeByte('\n');
+        if (nextId > 0) {
+            encoder.writeAscii(NEXT_ID_PREFIX);
+            encoder.writeInt(nextId);
+            encoder.writeByte('\n');
+        }
+        encoder.flushBuffer();
+        out.flush();
+    }
+
+    // Потоковое чтение: в памяти находится только текущая запись
+    @Override
+    public void read(InputStream in, Sink sink) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        // Пропускаем заголовок
+        if (reader.nextRecord() == null) {
+            return;
+        }
+
+        CsvTaskParser parser = new CsvTaskParser();
+        CharSequence record;
+        while ((record = reader.nextRecordChars()) != null) {
+            if (CsvRecordReader.isBlank(record)) {
+                // После пустой строки следует история
+                readHistorySection(reader, sink);
+                return;
+            }
+            if (SnapshotFiles.isMetadataRecord(record)) {
+                continue;
+            }
+
+            Task task = parser.parse(record);
+            if (task != null) {
+                sink.onTask(task);
+            } else {
+                sink.onSkippedRecord(record.toString().trim());
+            }
+        }
+    }
+
+    // Раздел после пустой строки: история и служебные строки до конца файла
+    static void readHistorySection(CsvRecordReader reader, Sink sink) throws IOException {
+        List<Integer> historyIds = null;
+        String record;
+        while ((record = reader.nextRecord()) != null) {
+            if (SnapshotFiles.isMetadataRecord(record)) {
+                String value = record.trim();
+                if (value.startsWith(NEXT_ID_PREFIX)) {
+                    try {
+                        sink.onNextId(Integer.parseInt(value.substring(NEXT_ID_PREFIX.length())));
+                    } catch (NumberFormatException e) {
+                        sink.onSkippedRecord(value);
+                    }
+                }
+            } else if (historyIds == null && !record.trim().isEmpty()) {
+                historyIds = historyFromString(record);
+            }
+        }
+        sink.onHistory(historyIds != null ? historyIds : new ArrayList<>());
+    }
+
+    // Преобразование строки в историю
+    static List<Integer> historyFromString(String value) {
+        List<Integer> ids = new ArrayList<>();
+        if (value != null && !value.trim().isEmpty()) {
+            String[] stringIds = value.split(",");
+            for (String stringId : stringIds) {
+                try {
+                    ids.add(Integer.parseInt(stringId.trim()));
+                } catch (NumberFormatException e) {
+                    // Log and skip malformed ID
+                    System.err.println("Warning: Skipping malformed history ID: '" + stringId.trim() + "'");
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Преобразование задачи в строку CSV (для записей журнала;
+    // снимок пишется потоково через CsvRowEncoder)
+    static String toCsv(Task task) {
+        TaskType type = getTaskType(task);
+        StringBuilder row = new StringBuilder(64);
+        row.append(task.getId()).append(',')
+                .append(type.name()).append(',');
+        appendEscaped(row, task.getName());
+        row.append(',').append(task.getStatus().name()).append(',');
+        appendEscaped(row, task.getDescription());
+        row.append(',');
+        if (task instanceof Subtask subtask) {
+            row.append(subtask.getEpicId());
+        }
+        return row.toString();
+    }
+
+    // Определение типа задачи
+    static TaskType getTaskType(Task task) {
+        if (task instanceof Epic) {
+            return TaskType.EPIC;
+        } else if (task instanceof Subtask) {
+            return TaskType.SUBTASK;
+        } else {
+            return TaskType.TASK;
+        }
+    }
+
+    // Экранирование строки для CSV
+    private static void appendEscaped(StringBuilder row, String value) {
+        if (value == null) {
+            return;
+        }
+
+        // Если строка содержит запятые, кавычки, переводы строк или возвраты каретки,
+        // оборачиваем в кавычки
+        if (!CsvRowEncoder.needsQuoting(value)) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // Экранируем кавычки удвоением
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+}
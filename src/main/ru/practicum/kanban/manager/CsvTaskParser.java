@@ -0,0 +1,145 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import main.ru.practicum.kanban.model.TaskType;
+
+/**
+ * Разбор строки CSV в задачу курсором по символам записи.
+ * <p>
+ * Каждое поле раскрывается (кавычки, удвоенные кавычки) в один переиспользуемый
+ * StringBuilder. Идентификаторы разбираются прямо из него, тип и статус
+ * сравниваются с именами констант без создания строк, поэтому память выделяется
+ * только под название, описание и саму задачу. Экземпляр не потокобезопасен.
+ */
+class CsvTaskParser {
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final StringBuilder field = new StringBuilder(64);
+    private CharSequence record;
+    private int position;
+    private int end;
+
+    // Задача или null, если запись не удалось разобрать
+    Task parse(CharSequence record) {
+        return parse(record, 0, record.length());
+    }
+
+    Task parse(CharSequence record, int start, int end) {
+        this.record = record;
+        // Пробелы по краям записи не учитываются
+        while (start < end && record.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && record.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        this.position = start;
+        this.end = end;
+
+        try {
+            if (!nextField()) {
+                return null;
+            }
+            int id = parseInt(0, field.length());
+            if (!nextField()) {
+                return null;
+            }
+            TaskType type = match(TYPES);
+            if (!nextField()) {
+                return null;
+            }
+            String name = field.toString();
+            if (!nextField()) {
+                return null;
+            }
+            TaskStatus status = match(STATUSES);
+            if (!nextField()) {
+                return null;
+            }
+            String description = field.toString();
+
+            Task task = switch (type) {
+                case TASK -> new Task(name, description);
+                case EPIC -> new Epic(name, description);
+                case SUBTASK -> {
+                    if (!nextField() || isBlankField()) {
+                        yield null;
+                    }
+                    yield new Subtask(name, description, parseInt(0, field.length()));
+                }
+            };
+            if (task != null) {
+                task.setId(id);
+                task.setStatus(status);
+            }
+            return task;
+        } catch (IllegalArgumentException e) {
+            // Сюда же попадает NumberFormatException и неизвестное имя константы
+            return null;
+        } finally {
+            this.record = null;
+        }
+    }
+
+    // Следующее поле в field; false, если поля закончились
+    private boolean nextField() {
+        if (position > end) {
+            return false;
+        }
+        field.setLength(0);
+        boolean inQuotes = false;
+        while (position < end) {
+            char c = record.charAt(position);
+            if (c == '"') {
+                // Удвоенная кавычка - символ кавычки
+                if (position + 1 < end && record.charAt(position + 1) == '"') {
+                    field.append('"');
+                    position += 2;
+                    continue;
+                }
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                position++;
+                return true;
+            } else {
+                field.append(c);
+            }
+            position++;
+        }
+        // Последнее поле записи
+        position = end + 1;
+        return true;
+    }
+
+    private boolean isBlankField() {
+        for (int i = 0; i < field.length(); i++) {
+            if (field.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int parseInt(int start, int end) {
+        while (start < end && field.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && field.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return Integer.parseInt(field, start, end, 10);
+    }
+
+    private <E extends Enum<E>> E match(E[] constants) {
+        for (E constant : constants) {
+            if (constant.name().contentEquals(field)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение: " + field);
+    }
+}
@@ -0,0 +1,154 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Файл описаний для ленивой загрузки ("&lt;файл&gt;.desc").
+ * <p>
+ * Описания дописываются в конец файла (4 байта длины и UTF-8), ссылкой служит
+ * смещение записи; смещения хранит менеджер. Файл - вспомогательный: при каждой
+ * загрузке менеджера он создается заново из снимка, поэтому не требует сброса
+ * на диск. Устаревшие записи (после изменения описания) освобождаются уплотнением
+ * (см. {@link #compact}) и при следующей загрузке.
+ * Недавно прочитанные описания хранятся в небольшом LRU-кэше.
+ */
+class DescriptionStore implements Closeable {
+    private final File file;
+    private final Map<Long, String> cache;
+    private FileChannel channel;
+    private boolean created;
+    private long size;
+
+    DescriptionStore(File file, int cacheSize) {
+        this.file = file;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Файл описаний располагается рядом со снимком
+    static File fileFor(File file) {
+        return new File(file.getPath() + ".desc");
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    // Дописывает описание, возвращает ссылку на него
+    synchronized long append(String description) throws IOException {
+        long offset = size;
+        size = write(channel(), offset, description);
+        return offset;
+    }
+
+    synchronized String load(long reference) throws IOException {
+        String description = cache.get(reference);
+        if (description != null) {
+            return description;
+        }
+
+        FileChannel source = channel();
+        ByteBuffer length = readFully(source, reference, Integer.BYTES);
+        ByteBuffer bytes = readFully(source, reference + Integer.BYTES, length.getInt(0));
+        description = new String(bytes.array(), StandardCharsets.UTF_8);
+        cache.put(reference, description);
+        return description;
+    }
+
+    /**
+     * Уплотнение: описания по ссылкам из offsets переписываются в новый файл,
+     * который заменяет текущий, а значения offsets заменяются новыми ссылками.
+     * Прочие записи файла отбрасываются.
+     */
+    synchronized void compact(IntHashMap<Long> offsets) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        long[] relocated = new long[offsets.size()];
+        long compactedSize = 0;
+        FileChannel target = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            int i = 0;
+            for (long reference : offsets.values()) {
+                relocated[i++] = compactedSize;
+                compactedSize = write(target, compactedSize, load(reference));
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            target.close();
+            Files.deleteIfExists(temp.toPath());
+            throw e;
+        }
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = target;
+        created = true;
+        size = compactedSize;
+        cache.clear();
+        int i = 0;
+        for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+            entry.setValue(relocated[i++]);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Запись описания с позиции position, возвращает позицию после него
+    private static long write(FileChannel target, long position, String description) throws IOException {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+        buffer.putInt(bytes.length).put(bytes).flip();
+        while (buffer.hasRemaining()) {
+            position += target.write(buffer, position);
+        }
+        return position;
+    }
+
+    private static ByteBuffer readFully(FileChannel source, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = source.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Неожиданный конец файла описаний");
+            }
+        }
+        return buffer;
+    }
+
+    // Первое открытие очищает файл, оставшийся от прошлого запуска
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            if (created) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } else {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                created = true;
+            }
+        }
+        return channel;
+    }
+}
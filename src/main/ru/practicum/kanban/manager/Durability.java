@@ -0,0 +1,22 @@
+package main.ru.practicum.kanban.manager;
+
+/**
+ * Гарантии сохранности изменений {@link FileBackedTaskManager}.
+ */
+public enum Durability {
+    // Запись только по явному flush(), checkpoint() или close(), без сброса на диск:
+    // доска работает со скоростью памяти, изменения после последнего сброса теряются
+    NONE,
+    // Каждый пакет изменений передается ОС: переживает падение процесса, но не отключение питания
+    FLUSH,
+    // Каждое изменение записывается и сбрасывается на диск (fsync) до возврата из метода;
+    // группировка изменений не применяется
+    FSYNC,
+    // Пакет изменений (см. группировку в настройках) сбрасывается на диск одним fsync
+    FSYNC_PER_BATCH;
+
+    // Нужно ли вызывать fsync при записи
+    boolean forcesToDisk() {
+        return this == FSYNC || this == FSYNC_PER_BATCH;
+    }
+}
@@ -0,0 +1,11 @@
+package main.ru.practicum.kanban.manager;
+
+/**
+ * Формат потокового экспорта задач (см. {@link TaskManager#export}).
+ */
+public enum ExportFormat {
+    // Заголовок "id,type,name,status,description,epic" и по строке на задачу, как в CSV-снимке
+    CSV,
+    // По JSON-объекту на строку: {"id":1,"type":"SUBTASK","name":...,"status":...,"description":...,"epic":2}
+    JSON_LINES
+}
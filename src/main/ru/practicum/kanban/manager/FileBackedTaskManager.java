@@ -2,127 +2,466 @@ package main.ru.practicum.kanban.manager;
 
 import main.ru.practicum.kanban.model.*;
 
-import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    // Количество записей журнала, после которого снимок перезаписывается целиком
+    static final int JOURNAL_CHECKPOINT_THRESHOLD = 10_000;
+
+    private static final String JOURNAL_UPSERT = "U";
+    private static final String JOURNAL_DELETE = "D";
+    private static final String JOURNAL_CLEAR = "C";
+    // Описание хранимой записи, вынесенное в файл описаний. Сравнивается по ссылке,
+    // поэтому не совпадает ни с одним настоящим описанием, в том числе пустым
+    private static final String DETACHED = new String();
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    private final PersistenceSettings settings;
+    private final TaskJournal journal;
+    // Архив для восстановления на момент времени (только в режиме JOURNAL с архивом)
+    private final RecoveryArchive archive;
+    // Фоновый поток записи (только в асинхронном режиме)
+    private final AsyncPersistenceWriter asyncWriter;
+    // Части снимка (только в режимах SEGMENTED и SHARDED)
+    private final PartitionedStore partitions;
+    // Файл описаний (только при ленивой загрузке описаний)
+    private final DescriptionStore descriptions;
+    // Ссылки на вынесенные описания в файле описаний по id задачи
+    private final IntHashMap<Long> descriptionOffsets = new IntHashMap<>();
+    // Фоновое уплотнение журнала (только в режиме JOURNAL с уплотнением)
+    private final JournalCompactor compactor;
+    // Журнал просмотров: история сохраняется без перезаписи снимка
+    private final HistoryJournal views;
+    // Новый менеджер начинает с пустого состояния и должен один раз записать снимок,
+    // иначе при загрузке журнал наложится на старое содержимое файла
+    private boolean checkpointed;
+    // Просмотры восстановленной на момент времени доски не пишутся до первого сохранения
+    private boolean recordViews = true;
+    // Номер и время последнего изменения; номер записывается в каждую запись журнала
+    private long sequence;
+    private long lastMutationMillis;
+
+    // Изменения, еще не сброшенные на диск
+    private final List<String> pendingRecords = new ArrayList<>();
+    private int pendingMutations;
+    private long lastFlushNanos = System.nanoTime();
+    // Поток отложенного сброса по интервалу группировки (создается при первом
+    // отложенном пакете). Сброс выполняется под монитором менеджера, поэтому
+    // открытые методы менеджера синхронизированы
+    private ScheduledExecutorService flushTimer;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+    // Записи журнала, переданные на запись после последнего снимка
+    private int journalRecordCount;
+    // Результат последней загрузки из файла
+    private final LoadReport loadReport = new LoadReport();
+    private final PersistenceMetrics metrics = new PersistenceMetrics();
+    // Разбор записей журнала при восстановлении
+    private final CsvTaskParser journalParser = new CsvTaskParser();
 
     public FileBackedTaskManager(File file) {
+        this(file, PersistenceSettings.defaults());
+    }
+
+    public FileBackedTaskManager(File file, PersistenceMode mode) {
+        this(file, PersistenceSettings.defaults().withMode(mode));
+    }
+
+    public FileBackedTaskManager(File file, PersistenceSettings settings) {
         this.file = file;
+        this.settings = settings;
+        this.archive = settings.getMode() == PersistenceMode.JOURNAL && settings.isRecoveryArchive()
+                ? new RecoveryArchive(RecoveryArchive.directoryFor(file), settings.getRecoveryRetentionMillis())
+                : null;
+        this.journal = new TaskJournal(journalFile(file), archive);
+        if (archive != null) {
+            // После контрольной точки журнал пуст, номер последнего изменения хранит архив
+            RecoveryArchive.Snapshot latest = archive.latestSnapshot();
+            if (latest != null) {
+                this.sequence = latest.sequence;
+                this.lastMutationMillis = latest.epochMillis;
+            }
+        }
+        this.asyncWriter = settings.isAsync()
+                ? new AsyncPersistenceWriter("kanban-writer-" + file.getName(), settings.getAsyncMaxLag())
+                : null;
+        this.partitions = switch (settings.getMode()) {
+            case SEGMENTED -> new SegmentedStore(SegmentedStore.directoryFor(file), settings.getSegmentSize());
+            case SHARDED -> new ShardedStore(ShardedStore.directoryFor(file));
+            default -> null;
+        };
+        this.descriptions = settings.isLazyDescriptions()
+                ? new DescriptionStore(DescriptionStore.fileFor(file), settings.getDescriptionCacheSize())
+                : null;
+        this.views = new HistoryJournal(HistoryJournal.fileFor(file));
+        this.compactor = settings.getMode() == PersistenceMode.JOURNAL && settings.isCompaction()
+                ? new JournalCompactor(file, journal, settings.getCompactionMinLogBytes(),
+                        settings.getCompactionLogRatio(), this::foldSegments, metrics)
+                : null;
     }
 
     // Восстановление состояния менеджера из файла
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        return loadFromFile(file, PersistenceSettings.defaults());
+    }
 
-        if (!file.exists()) {
-            return manager;
-        }
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceMode mode) {
+        return loadFromFile(file, PersistenceSettings.defaults().withMode(mode));
+    }
+
+    // Восстановление состояния из снимка и хвоста журнала
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        manager.checkpointed = true;
 
         try {
-            String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-            String[] lines = content.split("\n");
+            if (manager.partitions != null && manager.partitions.exists()) {
+                manager.loadPartitions();
+            } else {
+                if (file.exists()) {
+                    manager.loadSnapshot(file);
+                }
+                manager.journalRecordCount = manager.journal.replay(manager::applyJournalRecord);
+                // Переход со снимка на части: первый сброс записывает все части
+                if (manager.partitions != null) {
+                    manager.checkpointed = false;
+                }
+            }
+            // Просмотры после снимка поверх истории из него
+            manager.views.replay(manager::restoreView);
+            // Описания, восстановленные из журнала, тоже выносятся из памяти
+            manager.detachDescriptions();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла: " + file.getAbsolutePath(), e);
+        }
 
-            boolean isHistory = false;
-            List<Integer> historyIds = new ArrayList<>();
+        return manager;
+    }
 
-            for (int i = 1; i < lines.length; i++) {
-                String line = lines[i].trim();
+    /**
+     * Восстановление доски на момент времени (режим JOURNAL с архивом, см.
+     * {@link PersistenceSettings#withRecoveryArchive(long)}): загружается ближайший
+     * к точке снимок архива, и поверх него применяются только записи журнала
+     * после снимка и не позже точки.
+     * <p>
+     * Менеджер связан с тем же файлом, но ничего не пишет, пока доска не изменится:
+     * первое изменение записывает полный снимок, то есть откатывает доску к точке
+     * восстановления. Нумерация изменений продолжается после всех записанных ранее,
+     * поэтому откат сам остается в архиве и тоже может быть точкой восстановления.
+     * История просмотров восстанавливается из снимка, журнал просмотров не применяется.
+     */
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings, RecoveryPoint point) {
+        if (point == null) {
+            throw new IllegalArgumentException("Точка восстановления не может быть пустой");
+        }
+        if (settings.getMode() != PersistenceMode.JOURNAL || !settings.isRecoveryArchive()) {
+            throw new IllegalArgumentException("Восстановление на момент времени доступно только в режиме JOURNAL с архивом");
+        }
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        manager.recordViews = false;
 
-                if (line.isEmpty()) {
-                    isHistory = true;
-                    continue;
-                }
+        try {
+            RecoveryArchive.Snapshot base = manager.archive.findSnapshot(point);
+            if (base == null) {
+                throw new ManagerSaveException("В архиве нет снимка для точки восстановления " + point + ": "
+                        + manager.archive.getDirectory().getAbsolutePath());
+            }
+            manager.loadSnapshot(base.file);
+            long highWater = manager.sequence;
+            manager.sequence = base.sequence;
+            manager.lastMutationMillis = base.epochMillis;
 
-                if (isHistory) {
-                    historyIds = historyFromString(line);
-                    break;
-                } else {
-                    Task task = fromString(line);
-                    if (task != null) {
-                        manager.addTaskDirectly(task);
+            // Архивные файлы журнала после снимка, затем закрытые сегменты и активный файл
+            List<File> journalFiles = manager.archive.journalsAfter(base.sequence);
+            List<File> liveFiles = new ArrayList<>(manager.journal.sealedSegments());
+            liveFiles.add(manager.journal.getFile());
+            journalFiles.addAll(liveFiles);
+            for (File journalFile : journalFiles) {
+                boolean reachedPoint = !TaskJournal.replayWhile(journalFile, record -> {
+                    long recordSequence = TaskJournal.sequenceOf(record);
+                    if (recordSequence <= base.sequence) {
+                        return true;
+                    }
+                    if (!point.includes(recordSequence, TaskJournal.timeOf(record))) {
+                        return false;
                     }
+                    manager.applyJournalRecord(record);
+                    return true;
+                });
+                if (reachedPoint) {
+                    break;
                 }
             }
 
-            // Восстанавливаем историю
-            for (Integer id : historyIds) {
-                Task task = manager.getTaskById(id);
-                if (task != null) {
-                    manager.addToHistoryDirectly(task);
+            // Номера новых изменений идут после всех записанных, в том числе после точки
+            manager.sequence = Math.max(manager.sequence, highWater);
+            for (int i = liveFiles.size() - 1; i >= 0; i--) {
+                if (liveFiles.get(i).exists()) {
+                    manager.sequence = Math.max(manager.sequence, TaskJournal.lastSequence(liveFiles.get(i)));
+                    break;
                 }
             }
+            manager.detachDescriptions();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при восстановлении из файла: " + file.getAbsolutePath(), e);
+        }
+        return manager;
+    }
+
+    // Файл журнала располагается рядом со снимком
+    static File journalFile(File file) {
+        return new File(file.getPath() + ".log");
+    }
+
+    public PersistenceMode getMode() {
+        return settings.getMode();
+    }
+
+    public PersistenceSettings getSettings() {
+        return settings;
+    }
 
+    // Номер последнего изменения доски (точка восстановления, см. RecoveryPoint.atSequence)
+    public long getLastSequence() {
+        return sequence;
+    }
+
+    // Отчет о загрузке: контрольная сумма снимка и пропущенные записи
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    // Объем записи на диск по сбросам
+    public PersistenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Контрольная точка: полный снимок, очистка журнала и уплотнение файла описаний
+    public synchronized void checkpoint() {
+        save();
+        compactDescriptions();
+    }
+
+    // Принудительный сброс накопленных изменений на диск
+    // (в асинхронном режиме - передача их потоку записи)
+    public synchronized void flush() {
+        flushViews();
+        if (pendingMutations == 0) {
+            return;
+        }
+        if (!checkpointed) {
+            // Журнал просмотров, оставшийся от прежнего содержимого файла, заменяется текущей историей
+            resetViews();
+        }
+
+        if (partitions != null) {
+            flushPartitions(!checkpointed);
+            return;
+        }
+
+        if (settings.getMode() == PersistenceMode.SNAPSHOT || !checkpointed) {
+            save();
+            return;
+        }
+
+        List<String> batch = List.copyOf(pendingRecords);
+        resetPending();
+        journalRecordCount += batch.size();
+        perform(() -> {
+            metrics.recordFlush(journal.append(batch, forceWrites()));
+            if (compactor != null) {
+                compactor.maybeCompact();
+            }
+        }, "Ошибка при записи в журнал: " + journal.getFile().getAbsolutePath());
+
+        if (compactor == null && journalRecordCount >= JOURNAL_CHECKPOINT_THRESHOLD) {
+            save();
+        }
+    }
+
+    // Уплотнение журнала: сворачивает журнал в снимок и ждет завершения.
+    // Без уплотнения в настройках равносильно контрольной точке
+    public synchronized void compact() {
+        if (compactor == null) {
+            checkpoint();
+            return;
+        }
+        flush();
+        String errorMessage = "Ошибка уплотнения журнала: " + journal.getFile().getAbsolutePath();
+        perform(compactor::requestCompaction, errorMessage);
+        awaitPersisted();
+        try {
+            compactor.awaitIdle();
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при загрузке из файла: " + file.getAbsolutePath(), e);
+            throw new ManagerSaveException(errorMessage, e);
         }
+        compactDescriptions();
+    }
 
-        return manager;
+    // Барьер: возвращает управление, когда все изменения до вызова записаны на диск
+    public synchronized void awaitPersisted() {
+        flush();
+        if (asyncWriter != null) {
+            try {
+                asyncWriter.awaitPersisted();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при сохранении в файл: " + file.getAbsolutePath(), e);
+            }
+        }
     }
 
-    // Преобразование строки в историю
-    private static List<Integer> historyFromString(String value) {
-        List<Integer> ids = new ArrayList<>();
-        if (value != null && !value.trim().isEmpty()) {
-            String[] stringIds = value.split(",");
-            for (String stringId : stringIds) {
-                try {
-                    ids.add(Integer.parseInt(stringId.trim()));
-                } catch (NumberFormatException e) {
-                    // Log and skip malformed ID
-                    System.err.println("Warning: Skipping malformed history ID: '" + stringId.trim() + "'");
-                }
+    // Закрытие менеджера: все накопленные изменения гарантированно попадают на диск
+    @Override
+    public synchronized void close() {
+        flush();
+        closed = true;
+        if (flushTimer != null) {
+            flushTimer.shutdownNow();
+        }
+        try {
+            views.close();
+            if (asyncWriter != null) {
+                asyncWriter.close();
+            }
+            if (compactor != null) {
+                compactor.close();
+            }
+            if (descriptions != null) {
+                descriptions.close();
             }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении в файл: " + file.getAbsolutePath(), e);
         }
-        return ids;
     }
 
-    // Преобразование строки CSV в задачу
-    private static Task fromString(String value) {
-        String[] fields = parseCsvLine(value);
-        if (fields.length < 5) {
-            return null;
+    // Выполнение операции записи: сразу или в фоновом потоке
+    private void perform(AsyncPersistenceWriter.IoAction action, String errorMessage) {
+        try {
+            if (asyncWriter != null) {
+                asyncWriter.submit(action);
+            } else {
+                action.run();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(errorMessage, e);
         }
+    }
 
+    // Экспорт текущего состояния в CSV независимо от формата снимка
+    public synchronized void exportCsv(File target) {
         try {
-            int id = Integer.parseInt(fields[0]);
-            TaskType type = TaskType.valueOf(fields[1]);
-            String name = fields[2];
-            TaskStatus status = TaskStatus.valueOf(fields[3]);
-            String description = fields[4];
+            SnapshotFiles.writeAtomically(target, out -> writeSnapshot(new CsvSnapshotCodec(), out));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при экспорте в файл: " + target.getAbsolutePath(), e);
+        }
+    }
 
-            Task task = null;
+    // Загрузка снимка; формат определяется по сигнатуре файла. Контрольная сумма
+    // проверяется тем же проходом, что разбирает записи
+    private void loadSnapshot(File source) throws IOException {
+        if (source.length() == 0) {
+            return;
+        }
 
-            switch (type) {
-                case TASK:
-                    task = new Task(name, description);
-                    break;
-                case EPIC:
-                    task = new Epic(name, description);
-                    break;
-                case SUBTASK:
-                    if (fields.length >= 6 && !fields[5].trim().isEmpty()) {
-                        int epicId = Integer.parseInt(fields[5]);
-                        task = new Subtask(name, description, epicId);
-                    }
-                    break;
+        List<Integer> historyIds = new ArrayList<>();
+        SnapshotCodec.Sink sink = snapshotSink(historyIds);
+        SnapshotChecksum checksum;
+
+        SnapshotFormat format = CompressedSnapshotCodec.isCompressed(source) ? null : SnapshotFormat.detect(source);
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            checksum = new SnapshotChecksum(channel.size());
+            if (format == null) {
+                // Сжатый снимок: блоки распаковываются параллельно, записи разбираются потоком
+                InputStream in = checksum.wrap(Channels.newInputStream(channel));
+                CompressedSnapshotCodec.reader(settings.getCompression(), settings.getLoadParallelism())
+                        .read(in, sink);
+                checksum.drain(in);
+            } else if (format == SnapshotFormat.CSV && settings.getLoadParallelism() > 1) {
+                new ParallelSnapshotLoader(settings.getLoadParallelism()).load(channel, sink, checksum);
+            } else if (format == SnapshotFormat.BINARY && settings.isMemoryMappedLoad()
+                    && channel.size() <= Integer.MAX_VALUE) {
+                // Отображение в память: записи разбираются прямо из страниц файла,
+                // сумма считается по тем же страницам без повторного чтения с диска
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                new BinarySnapshotCodec().read(buffer, sink);
+                checksum.update(buffer.clear());
+            } else {
+                InputStream in = checksum.wrap(Channels.newInputStream(channel));
+                format.codec().read(in, sink);
+                checksum.drain(in);
             }
+        }
 
-            if (task != null) {
-                task.setId(id);
-                task.setStatus(status);
+        LoadReport.ChecksumStatus checksumStatus = checksum.status();
+        loadReport.setChecksumStatus(checksumStatus);
+        if (checksumStatus == LoadReport.ChecksumStatus.MISMATCH) {
+            throw new ManagerSaveException("Контрольная сумма снимка не совпадает, файл поврежден: "
+                    + source.getAbsolutePath());
+        }
+        restoreHistory(historyIds);
+    }
+
+    // Загрузка частей снимка
+    private void loadPartitions() throws IOException {
+        List<Integer> historyIds = new ArrayList<>();
+        loadReport.setChecksumStatus(partitions.load(snapshotSink(historyIds), settings.getCompression()));
+        restoreHistory(historyIds);
+    }
+
+    private SnapshotCodec.Sink snapshotSink(List<Integer> historyIds) {
+        return new SnapshotCodec.Sink() {
+            @Override
+            public void onTask(Task task) {
+                addTaskDirectly(task);
             }
 
-            return task;
-        } catch (IllegalArgumentException e) {
-            return null;
+            @Override
+            public void onHistory(List<Integer> ids) {
+                historyIds.addAll(ids);
+            }
+
+            @Override
+            public void onNextId(int nextId) {
+                idAllocator.advanceTo(nextId);
+            }
+
+            @Override
+            public void onSkippedRecord(String record) {
+                System.err.println("Warning: Skipping malformed snapshot record: '" + record + "'");
+                loadReport.addSkippedRecord(record);
+            }
+        };
+    }
+
+    // Восстанавливаем историю
+    private void restoreHistory(List<Integer> historyIds) {
+        for (Integer id : historyIds) {
+            Task task = getTaskById(id);
+            if (task != null) {
+                addToHistoryDirectly(task);
+            }
         }
     }
 
@@ -130,8 +469,10 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     private void addTaskDirectly(Task task) {
         if (task instanceof Epic) {
             super.epics.put(task.getId(), (Epic) task);
+            super.index.put(task.getId(), task);
         } else if (task instanceof Subtask subtask) {
             super.subtasks.put(task.getId(), subtask);
+            super.index.put(task.getId(), subtask);
             // Добавляем подзадачу к эпику
             Epic epic = super.epics.get(subtask.getEpicId());
             if (epic != null) {
@@ -139,222 +480,749 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             }
         } else {
             super.tasks.put(task.getId(), task);
+            super.index.put(task.getId(), task);
         }
+        detachDescription(task);
+        idAllocator.reserve(task.getId());
+    }
+
+    private Task getTaskById(int id) {
+        return super.index.get(id);
+    }
+
+    private void addToHistoryDirectly(Task task) {
+        super.historyManager.add(task);
+    }
+
+    // При ленивой загрузке описаний возвращаемая копия получает описание из файла
+    @Override
+    public synchronized Task getTask(int id) {
+        return recordView(hydrate(super.getTask(id)));
+    }
+
+    @Override
+    public synchronized Epic getEpic(int id) {
+        return recordView(hydrate(super.getEpic(id)));
+    }
 
-        // Обновляем nextId
-        if (task.getId() >= super.nextId) {
-            super.nextId = task.getId() + 1;
+    @Override
+    public synchronized Subtask getSubtask(int id) {
+        return recordView(hydrate(super.getSubtask(id)));
+    }
+
+    @Override
+    public synchronized Task getAny(int id) {
+        return recordView(hydrate(super.getAny(id)));
+    }
+
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        List<Task> copies = super.getAllTasks();
+        copies.forEach(this::hydrate);
+        return copies;
+    }
+
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        List<Epic> copies = super.getAllEpics();
+        copies.forEach(this::hydrate);
+        return copies;
+    }
+
+    @Override
+    public synchronized List<Subtask> getAllSubtasks() {
+        List<Subtask> copies = super.getAllSubtasks();
+        copies.forEach(this::hydrate);
+        return copies;
+    }
+
+    @Override
+    public synchronized List<Subtask> getEpicSubtasks(int epicId) {
+        List<Subtask> copies = super.getEpicSubtasks(epicId);
+        copies.forEach(this::hydrate);
+        return copies;
+    }
+
+    // Копии из истории дополняются описаниями без изменения самой истории
+    @Override
+    public synchronized List<Task> getHistory() {
+        List<Task> history = super.getHistory();
+        if (descriptions == null) {
+            return history;
         }
+        List<Task> copies = new ArrayList<>(history.size());
+        for (Task task : history) {
+            copies.add(resolve(task));
+        }
+        return copies;
     }
 
-    private Task getTaskById(int id) {
-        Task task = super.tasks.get(id);
-        if (task != null)
-            return task;
+    @Override
+    protected Task outgoing(Task record) {
+        return resolve(record);
+    }
 
-        task = super.epics.get(id);
-        if (task != null)
+    // Просмотр дописывается в журнал просмотров; без NONE он сразу передается ОС
+    private <T extends Task> T recordView(T task) {
+        if (task == null || !recordViews) {
             return task;
+        }
+        try {
+            views.append(task.getId());
+            if (views.needsCompaction(() -> getHistory().size())) {
+                views.compact(historyIds());
+            } else if (settings.getDurability() != Durability.NONE) {
+                views.flush(settings.getDurability() == Durability.FSYNC);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл: " + views.getFile().getAbsolutePath(), e);
+        }
+        return task;
+    }
 
-        return super.subtasks.get(id);
+    private void flushViews() {
+        try {
+            views.flush(forceWrites());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл: " + views.getFile().getAbsolutePath(), e);
+        }
     }
 
-    private void addToHistoryDirectly(Task task) {
-        super.historyManager.add(task);
+    private void resetViews() {
+        if (!views.getFile().exists()) {
+            return;
+        }
+        try {
+            views.compact(historyIds());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл: " + views.getFile().getAbsolutePath(), e);
+        }
     }
 
-    // Парсинг строки CSV с учетом кавычек
-    private static String[] parseCsvLine(String line) {
-        List<String> result = new ArrayList<>();
-        boolean inQuotes = false;
-        StringBuilder current = new StringBuilder();
+    // Применение просмотра из журнала; просмотры удаленных задач пропускаются
+    private void restoreView(int id) {
+        Task task = getTaskById(id);
+        if (task != null) {
+            addToHistoryDirectly(task);
+        }
+    }
 
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
+    // Загрузка вынесенного описания в выдаваемую копию. Копия получает текущее
+    // описание задачи, в том числе копия из истории просмотров
+    private <T extends Task> T hydrate(T task) {
+        if (task != null && task.getDescription() == DETACHED) {
+            task.setDescription(loadDescription(task.getId()));
+        }
+        return task;
+    }
 
-            if (c == '"') {
-                // Проверяем экранированные кавычки ""
-                if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
-                    current.append('"');
-                    i++; // Пропускаем следующую кавычку
-                } else {
-                    inQuotes = !inQuotes;
-                }
-            } else if (c == ',' && !inQuotes) {
-                result.add(current.toString());
-                current = new StringBuilder();
+    // Хранимая запись с загруженным описанием: при вынесенном описании - ее копия
+    private Task resolve(Task record) {
+        if (record == null || record.getDescription() != DETACHED) {
+            return record;
+        }
+        Task copy;
+        if (record instanceof Epic epic) {
+            copy = new Epic(epic);
+        } else if (record instanceof Subtask subtask) {
+            copy = new Subtask(subtask);
+        } else {
+            copy = new Task(record);
+        }
+        return hydrate(copy);
+    }
+
+    private String loadDescription(int id) {
+        Long offset = descriptionOffsets.get(id);
+        if (offset == null) {
+            return "";
+        }
+        try {
+            return descriptions.load(offset);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла: " + descriptions.getFile().getAbsolutePath(), e);
+        }
+    }
+
+    // Вынос описания хранимой записи в файл описаний. Неизмененное описание
+    // не дописывается повторно, пустое не записывается вовсе
+    private void detachDescription(Task task) {
+        if (descriptions == null || task == null || task.getDescription() == DETACHED) {
+            return;
+        }
+        String description = task.getDescription();
+        try {
+            if (description.isEmpty()) {
+                descriptionOffsets.remove(task.getId());
             } else {
-                current.append(c);
+                Long offset = descriptionOffsets.get(task.getId());
+                if (offset == null || !descriptions.load(offset).equals(description)) {
+                    offset = descriptions.append(description);
+                    descriptionOffsets.put(task.getId(), offset);
+                }
             }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл: " + descriptions.getFile().getAbsolutePath(), e);
+        }
+        task.setDescription(DETACHED);
+    }
+
+    // Уплотнение файла описаний: в нем остаются только описания хранимых задач
+    private void compactDescriptions() {
+        if (descriptions == null) {
+            return;
         }
-        result.add(current.toString());
+        // Ссылки удаленных задач отбрасываются
+        descriptionOffsets.keySet().removeIf(id -> !index.containsKey(id));
+        try {
+            descriptions.compact(descriptionOffsets);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл: " + descriptions.getFile().getAbsolutePath(), e);
+        }
+    }
 
-        return result.toArray(new String[0]);
+    private void detachDescriptions() {
+        if (descriptions == null) {
+            return;
+        }
+        tasks.values().forEach(this::detachDescription);
+        epics.values().forEach(this::detachDescription);
+        subtasks.values().forEach(this::detachDescription);
     }
 
     // Переопределяем методы для автосохранения
     @Override
-    public int createTask(String name, String description) {
+    public synchronized int createTask(String name, String description) {
         int taskId = super.createTask(name, description);
-        save();
+        persist(upsertRecord(tasks.get(taskId)));
         return taskId;
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        persist(upsertRecord(tasks.get(task.getId())));
     }
 
     @Override
-    public void deleteTask(int id) {
+    public synchronized void deleteTask(int id) {
         super.deleteTask(id);
-        save();
+        persist(deleteRecord(TaskType.TASK, id));
     }
 
     @Override
-    public void deleteAllTasks() {
+    public synchronized void deleteAllTasks() {
+        markDirty(TaskType.TASK, tasks.keySet());
         super.deleteAllTasks();
-        save();
+        persist(clearRecord(TaskType.TASK));
     }
 
     @Override
-    public int createEpic(String name, String description) {
+    public synchronized int createEpic(String name, String description) {
         int epicId = super.createEpic(name, description);
-        save();
+        persist(upsertRecord(epics.get(epicId)));
         return epicId;
     }
 
     @Override
-    public void updateEpic(Epic epic) {
+    public synchronized void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        persist(upsertRecord(epics.get(epic.getId())));
     }
 
     @Override
-    public void deleteEpic(int id) {
+    public synchronized void deleteEpic(int id) {
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            // Подзадачи удаляются вместе с эпиком
+            markDirty(TaskType.SUBTASK, epic.getSubtaskIds());
+        }
         super.deleteEpic(id);
-        save();
+        persist(deleteRecord(TaskType.EPIC, id));
     }
 
     @Override
-    public void deleteAllEpics() {
+    public synchronized void deleteAllEpics() {
+        markDirty(TaskType.EPIC, epics.keySet());
+        markDirty(TaskType.SUBTASK, subtasks.keySet());
         super.deleteAllEpics();
-        save();
+        persist(clearRecord(TaskType.EPIC));
     }
 
     @Override
-    public void createSubtask(String name, String description, int epicId) {
+    public synchronized void createSubtask(String name, String description, int epicId) {
         super.createSubtask(name, description, epicId);
-        save();
+        Epic epic = epics.get(epicId);
+        List<Integer> subtaskIds = epic.getSubtaskIds();
+        Subtask subtask = subtasks.get(subtaskIds.get(subtaskIds.size() - 1));
+        persist(upsertRecord(subtask), upsertRecord(epic));
     }
 
     @Override
-    public void updateSubtask(Subtask subtask) {
+    public synchronized void updateSubtask(Subtask subtask) {
         super.updateSubtask(subtask);
-        save();
+        Subtask saved = subtasks.get(subtask.getId());
+        if (saved != null) {
+            persist(upsertRecord(saved), upsertRecord(epics.get(saved.getEpicId())));
+        } else {
+            persist();
+        }
     }
 
     @Override
-    public void deleteSubtask(int id) {
+    public synchronized void deleteSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
         super.deleteSubtask(id);
-        save();
+        if (subtask != null) {
+            persist(deleteRecord(TaskType.SUBTASK, id), upsertRecord(epics.get(subtask.getEpicId())));
+        } else {
+            persist();
+        }
     }
 
     @Override
-    public void deleteAllSubtasks() {
+    public synchronized void deleteAllSubtasks() {
+        // Статусы и списки подзадач эпиков тоже меняются
+        markDirty(TaskType.SUBTASK, subtasks.keySet());
+        markDirty(TaskType.EPIC, epics.keySet());
         super.deleteAllSubtasks();
-        save();
+        persist(clearRecord(TaskType.SUBTASK));
     }
 
-    // Сохранение состояния менеджера в файл
-    private void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+    // Импорт сохраняется одним полным снимком вместо записи на каждый элемент
+    @Override
+    public synchronized List<Integer> importTasks(Stream<? extends Task> items) {
+        return persistImport(super.importTasks(items));
+    }
+
+    @Override
+    public synchronized List<Integer> importSubtasks(int epicId, Stream<? extends Subtask> subtasks) {
+        return persistImport(super.importSubtasks(epicId, subtasks));
+    }
+
+    private List<Integer> persistImport(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        for (int id : ids) {
+            detachDescription(getTaskById(id));
+        }
+        // Следующий сброс запишет полный снимок (или все части) и очистит журнал
+        checkpointed = false;
+        persist();
+        return ids;
+    }
+
+    // Фиксация изменения: запись откладывается, пока не наберется пакет
+    // или не истечет интервал сброса
+    private void persist(String... records) {
+        sequence++;
+        lastMutationMillis = System.currentTimeMillis();
+        if (settings.getMode() == PersistenceMode.JOURNAL) {
+            // Все записи одного изменения получают его номер и время
+            String header = sequence + "," + lastMutationMillis + ",";
+            for (String record : records) {
+                if (record != null) {
+                    pendingRecords.add(header + record);
+                }
+            }
+        }
+        pendingMutations++;
+
+        switch (settings.getDurability()) {
+            // Изменения остаются в памяти до явного flush(), checkpoint() или close()
+            case NONE -> {
+            }
+            // Каждое изменение фиксируется на диске до возврата, группировка не применяется
+            case FSYNC -> awaitPersisted();
+            default -> {
+                long intervalNanos = settings.getFlushIntervalMillis() * 1_000_000L;
+                if (pendingMutations >= settings.getFlushEveryMutations()
+                        || (intervalNanos > 0 && System.nanoTime() - lastFlushNanos >= intervalNanos)) {
+                    flush();
+                } else if (intervalNanos > 0) {
+                    scheduleFlush(intervalNanos);
+                }
+            }
+        }
+    }
+
+    // Отложенный сброс: неполный пакет записывается по истечении интервала с прошлого
+    // сброса, даже если новых изменений больше не будет
+    private void scheduleFlush(long intervalNanos) {
+        if (scheduledFlush != null && !scheduledFlush.isDone()) {
+            return;
+        }
+        if (flushTimer == null) {
+            flushTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kanban-flush-" + file.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        long delayNanos = Math.max(0, lastFlushNanos + intervalNanos - System.nanoTime());
+        scheduledFlush = flushTimer.schedule(this::flushScheduled, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Пакет мог быть сброшен раньше (по размеру, явным flush() или закрытием)
+    private synchronized void flushScheduled() {
+        if (closed || pendingMutations == 0) {
+            return;
+        }
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            // Ошибка повторится при следующем сбросе в вызывающем потоке
+            System.err.println("Warning: Scheduled flush failed: " + e.getMessage());
+        }
+    }
+
+    // Сбрасывать ли записи на диск (fsync) согласно уровню сохранности
+    private boolean forceWrites() {
+        return settings.getDurability().forcesToDisk();
+    }
 
-            // Заголовок CSV
-            writer.write("id,type,name,status,description,epic\n");
+    private void resetPending() {
+        pendingRecords.clear();
+        pendingMutations = 0;
+        lastFlushNanos = System.nanoTime();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private String upsertRecord(Task task) {
+        if (task == null) {
+            return null;
+        }
+        markDirty(CsvSnapshotCodec.getTaskType(task), task.getId());
+        String record = JOURNAL_UPSERT + "," + CsvSnapshotCodec.toCsv(resolve(task));
+        detachDescription(task);
+        return record;
+    }
 
-            // Сохраняем обычные задачи
-            for (Task task : getAllTasks()) {
-                writer.write(toString(task) + "\n");
+    private String deleteRecord(TaskType type, int id) {
+        markDirty(type, id);
+        return JOURNAL_DELETE + "," + id;
+    }
+
+    private static String clearRecord(TaskType type) {
+        return JOURNAL_CLEAR + "," + type.name();
+    }
+
+    // Учет измененных записей для записи частей снимка
+    private void markDirty(TaskType type, int id) {
+        if (partitions != null) {
+            partitions.markDirty(type, id);
+        }
+    }
+
+    private void markDirty(TaskType type, Collection<Integer> ids) {
+        if (partitions != null) {
+            partitions.markDirty(type, ids);
+        }
+    }
+
+    // Хранилище задач указанного типа; при ленивой загрузке описаний - представление,
+    // выдающее записи с описаниями
+    private Map<Integer, ? extends Task> storage(TaskType type) {
+        Map<Integer, ? extends Task> records = switch (type) {
+            case TASK -> tasks;
+            case EPIC -> epics;
+            case SUBTASK -> subtasks;
+        };
+        if (descriptions == null) {
+            return records;
+        }
+        return new AbstractMap<Integer, Task>() {
+            @Override
+            public Task get(Object key) {
+                return resolve(records.get(key));
             }
 
-            // Сохраняем эпики
-            for (Epic epic : getAllEpics()) {
-                writer.write(toString(epic) + "\n");
+            @Override
+            public boolean containsKey(Object key) {
+                return records.containsKey(key);
             }
 
-            // Сохраняем подзадачи
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(toString(subtask) + "\n");
+            @Override
+            public int size() {
+                return records.size();
             }
 
-            // Сохраняем историю
-            writer.write("\n");
-            writer.write(historyToString(getHistory()));
+            @Override
+            public Set<Entry<Integer, Task>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<Integer, Task>> iterator() {
+                        Iterator<? extends Entry<Integer, ? extends Task>> entries = records.entrySet().iterator();
+                        return new Iterator<>() {
+                            @Override
+                            public boolean hasNext() {
+                                return entries.hasNext();
+                            }
 
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при сохранении в файл: " + file.getAbsolutePath(), e);
+                            @Override
+                            public Entry<Integer, Task> next() {
+                                Entry<Integer, ? extends Task> entry = entries.next();
+                                return new SimpleImmutableEntry<>(entry.getKey(), resolve(entry.getValue()));
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return records.size();
+                    }
+                };
+            }
+        };
+    }
+
+    // Применение записи журнала к состоянию при восстановлении.
+    // Записи идемпотентны: повторное применение уже учтенного в снимке хвоста
+    // приводит к тому же состоянию, поэтому сбой между снимком и очисткой журнала безопасен
+    private void applyJournalRecord(String record) {
+        int operationStart = 0;
+        long recordSequence = TaskJournal.sequenceOf(record);
+        if (recordSequence >= 0) {
+            long recordTime = TaskJournal.timeOf(record);
+            if (recordTime < 0) {
+                skipJournalRecord(record);
+                return;
+            }
+            sequence = Math.max(sequence, recordSequence);
+            lastMutationMillis = Math.max(lastMutationMillis, recordTime);
+            operationStart = record.indexOf(',', record.indexOf(',') + 1) + 1;
+        }
+        int separator = record.indexOf(',', operationStart);
+        if (separator < 0) {
+            skipJournalRecord(record);
+            return;
+        }
+        String operation = record.substring(operationStart, separator);
+        int payloadStart = separator + 1;
+
+        try {
+            switch (operation) {
+                case JOURNAL_UPSERT -> {
+                    Task task = journalParser.parse(record, payloadStart, record.length());
+                    if (task != null) {
+                        applyUpsert(task);
+                    } else {
+                        skipJournalRecord(record);
+                    }
+                }
+                case JOURNAL_DELETE -> applyDelete(Integer.parseInt(record.substring(payloadStart).trim()));
+                case JOURNAL_CLEAR -> applyClear(TaskType.valueOf(record.substring(payloadStart).trim()));
+                default -> skipJournalRecord(record);
+            }
+        } catch (IllegalArgumentException e) {
+            skipJournalRecord(record);
         }
     }
 
-    // Преобразование задачи в строку CSV
-    private String toString(Task task) {
-        TaskType type = getTaskType(task);
-        String epicId = "";
+    private void skipJournalRecord(String record) {
+        System.err.println("Warning: Skipping malformed journal record: '" + record + "'");
+        loadReport.addSkippedRecord(record);
+    }
 
-        if (task instanceof Subtask) {
-            epicId = String.valueOf(((Subtask) task).getEpicId());
+    private void applyUpsert(Task task) {
+        if (task instanceof Epic epic) {
+            Epic saved = epics.get(epic.getId());
+            if (saved != null) {
+                // Список подзадач восстанавливается из самих подзадач
+                saved.setName(epic.getName());
+                saved.setDescription(epic.getDescription());
+                saved.setStatus(epic.getStatus());
+                return;
+            }
+        } else if (task instanceof Subtask subtask && subtasks.containsKey(subtask.getId())) {
+            subtasks.put(subtask.getId(), subtask);
+            index.put(subtask.getId(), subtask);
+            return;
         }
+        addTaskDirectly(task);
+    }
 
-        return String.format("%d,%s,%s,%s,%s,%s",
-                task.getId(),
-                type.name(),
-                escapeCsv(task.getName()),
-                task.getStatus().name(),
-                escapeCsv(task.getDescription()),
-                epicId);
+    private void applyDelete(int id) {
+        Task record = index.get(id);
+        if (record instanceof Epic) {
+            super.deleteEpic(id);
+        } else if (record instanceof Subtask) {
+            super.deleteSubtask(id);
+        } else if (record != null) {
+            super.deleteTask(id);
+        }
     }
 
-    // Преобразование истории в строку
-    private String historyToString(List<Task> history) {
-        List<String> ids = new ArrayList<>();
-        for (Task task : history) {
-            ids.add(String.valueOf(task.getId()));
+    private void applyClear(TaskType type) {
+        switch (type) {
+            case TASK -> super.deleteAllTasks();
+            case EPIC -> super.deleteAllEpics();
+            case SUBTASK -> super.deleteAllSubtasks();
         }
-        return String.join(",", ids);
     }
 
-    // Определение типа задачи
-    private TaskType getTaskType(Task task) {
-        if (task instanceof Epic) {
-            return TaskType.EPIC;
-        } else if (task instanceof Subtask) {
-            return TaskType.SUBTASK;
+    // Сохранение состояния менеджера в файл
+    private void save() {
+        if (partitions != null) {
+            flushPartitions(true);
+            return;
+        }
+
+        String errorMessage = "Ошибка при сохранении в файл: " + file.getAbsolutePath();
+        SnapshotCodec codec = snapshotCodec();
+        long snapshotSequence = sequence;
+        long snapshotMillis = lastMutationMillis;
+        if (asyncWriter != null) {
+            // Снимок формируется в памяти вызывающего потока, на диск его пишет фоновый поток
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try {
+                writeSnapshot(codec, buffer);
+            } catch (IOException e) {
+                throw new ManagerSaveException(errorMessage, e);
+            }
+            byte[] content = buffer.toByteArray();
+            perform(() -> exclusive(() -> {
+                long written = SnapshotFiles.writeAtomically(file, out -> out.write(content), forceWrites());
+                journal.truncate();
+                archiveSnapshot(snapshotSequence, snapshotMillis);
+                metrics.recordFlush(written);
+            }), errorMessage);
         } else {
-            return TaskType.TASK;
+            perform(() -> exclusive(() -> {
+                long written = SnapshotFiles.writeAtomically(file, out -> writeSnapshot(codec, out), forceWrites());
+                // Снимок содержит все изменения, журнал больше не нужен
+                journal.truncate();
+                archiveSnapshot(snapshotSequence, snapshotMillis);
+                metrics.recordFlush(written);
+            }), errorMessage);
         }
+
+        checkpointed = true;
+        recordViews = true;
+        journalRecordCount = 0;
+        resetPending();
     }
 
-    // Экранирование строки для CSV
-    private static String escapeCsv(String value) {
-        if (value == null) {
-            return "";
+    // Запись снимка не пересекается с фоновой сверткой журнала
+    private void exclusive(AsyncPersistenceWriter.IoAction action) throws IOException {
+        if (compactor != null) {
+            compactor.exclusive(action);
+        } else {
+            action.run();
         }
+    }
 
-        // Если строка содержит запятые, кавычки, переводы строк или возвраты каретки,
-        // оборачиваем в кавычки
-        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
-            // Экранируем кавычки удвоением
-            String escaped = value.replace("\"", "\"\"");
-            return "\"" + escaped + "\"";
+    // Свертка снимка и закрытых сегментов журнала в новый снимок. Выполняется в потоке
+    // уплотнения по файлам, а не по состоянию в памяти, поэтому не мешает изменениям
+    private long foldSegments(List<File> sealedSegments) throws IOException {
+        PersistenceSettings scratchSettings = PersistenceSettings.defaults()
+                .withSnapshotFormat(settings.getSnapshotFormat());
+        if (settings.isCompression()) {
+            scratchSettings = scratchSettings.withCompression(settings.getCompression(),
+                    settings.getCompressionBlockSize());
+        }
+        FileBackedTaskManager scratch = new FileBackedTaskManager(file, scratchSettings);
+        if (file.exists()) {
+            scratch.loadSnapshot(file);
+        }
+        for (File segment : sealedSegments) {
+            TaskJournal.replay(segment, scratch::applyJournalRecord);
         }
+        SnapshotCodec codec = snapshotCodec();
+        long written = SnapshotFiles.writeAtomically(file, out -> scratch.writeSnapshot(codec, out), forceWrites());
+        // Номер снимка - последняя свернутая запись; записи прежнего формата номера не дают
+        if (scratch.sequence > 0) {
+            archiveSnapshot(scratch.sequence, scratch.lastMutationMillis);
+        }
+        return written;
+    }
 
-        return value;
+    private void archiveSnapshot(long snapshotSequence, long snapshotMillis) throws IOException {
+        if (archive != null) {
+            archive.addSnapshot(file, snapshotSequence, snapshotMillis);
+        }
+    }
+
+    // Запись только измененных частей; при полной записи (full) - всех
+    private void flushPartitions(boolean full) {
+        if (full) {
+            partitions.markDirty(TaskType.TASK, tasks.keySet());
+            partitions.markDirty(TaskType.EPIC, epics.keySet());
+            partitions.markDirty(TaskType.SUBTASK, subtasks.keySet());
+        }
+
+        String errorMessage = "Ошибка при сохранении в каталог: " + partitions.getDirectory().getAbsolutePath();
+        PartitionedStore.Batch batch;
+        try {
+            batch = partitions.prepare(this::storage, historyIds(), idAllocator.peekNext(), snapshotCodec(), full);
+        } catch (IOException e) {
+            throw new ManagerSaveException(errorMessage, e);
+        }
+        if (!batch.isEmpty()) {
+            perform(() -> metrics.recordFlush(batch.write(forceWrites())), errorMessage);
+        }
+
+        checkpointed = true;
+        resetPending();
+    }
+
+    // Кодек записи снимка и сегментов с учетом сжатия
+    private SnapshotCodec snapshotCodec() {
+        if (settings.isCompression()) {
+            return new CompressedSnapshotCodec(settings.getSnapshotFormat(), settings.getCompression(),
+                    settings.getCompressionBlockSize(), 1);
+        }
+        return settings.getSnapshotFormat().codec();
+    }
+
+    private void writeSnapshot(SnapshotCodec codec, OutputStream out) throws IOException {
+        // Задачи передаются кодеку без копирования в промежуточный список
+        codec.write(out, allRecords(), historyIds(), idAllocator.peekNext());
+    }
+
+    // Последовательный обход задач, эпиков и подзадач с описаниями
+    private Iterable<Task> allRecords() {
+        List<Collection<? extends Task>> parts = List.of(tasks.values(), epics.values(), subtasks.values());
+        return () -> new Iterator<>() {
+            private int part;
+            private Iterator<? extends Task> current = parts.get(0).iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && part + 1 < parts.size()) {
+                    current = parts.get(++part).iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return resolve(current.next());
+            }
+        };
+    }
+
+    private List<Integer> historyIds() {
+        List<Integer> historyIds = new ArrayList<>();
+        for (Task task : getHistory()) {
+            historyIds.add(task.getId());
+        }
+        return historyIds;
     }
 
     // Исключение для ошибок сохранения/загрузки
     public static class ManagerSaveException extends RuntimeException {
+        public ManagerSaveException(String message) {
+            super(message);
+        }
+
         public ManagerSaveException(String message, Throwable cause) {
             super(message, cause);
         }
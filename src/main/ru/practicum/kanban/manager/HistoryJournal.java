@@ -0,0 +1,175 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Журнал просмотров для {@link FileBackedTaskManager}: файл "&lt;файл&gt;.views",
+ * в который каждый просмотр дописывается 4-байтовым id задачи.
+ * <p>
+ * Просмотр перемещает задачу в конец истории, поэтому повторное применение уже
+ * учтенных просмотров дает ту же историю: журнал можно накладывать на историю
+ * из любого более старого снимка. Когда журнал вырастает, он переписывается
+ * текущей историей (по записи на задачу). Экземпляр не потокобезопасен.
+ */
+class HistoryJournal implements AutoCloseable {
+    static final int RECORD_SIZE = Integer.BYTES;
+    // Журнал не переписывается, пока в нем меньше этого числа записей
+    static final int MIN_COMPACTION_RECORDS = 16 * 1024;
+
+    private final File file;
+    // Записи накапливаются в буфере и передаются ОС при сбросе
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(4 * 1024);
+    private FileChannel channel;
+    private long recordCount = -1;
+    // Число записей, при котором снова проверяется необходимость переписать журнал
+    private long nextCompactionCheck = MIN_COMPACTION_RECORDS;
+
+    HistoryJournal(File file) {
+        this.file = file;
+    }
+
+    // Журнал просмотров располагается рядом с файлом снимка
+    static File fileFor(File file) {
+        return new File(file.getPath() + ".views");
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    // Запись просмотра в буфер; на диск она попадает при следующем flush
+    void append(int id) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush(false);
+        }
+        buffer.putInt(id);
+    }
+
+    // Передача буфера ОС (force - со сбросом на диск)
+    void flush(boolean force) throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        FileChannel target = channel();
+        recordCount += buffer.position() / RECORD_SIZE;
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        buffer.clear();
+        if (force) {
+            target.force(false);
+        }
+    }
+
+    // Нужно ли переписать журнал: записей заметно больше, чем задач в истории.
+    // Размер истории запрашивается только при достижении очередного порога
+    boolean needsCompaction(IntSupplier historySize) {
+        if (recordCount < 0) {
+            recordCount = file.length() / RECORD_SIZE;
+        }
+        long records = recordCount + buffer.position() / RECORD_SIZE;
+        if (records < nextCompactionCheck) {
+            return false;
+        }
+        long limit = 4L * historySize.getAsInt();
+        if (records >= limit) {
+            return true;
+        }
+        nextCompactionCheck = limit;
+        return false;
+    }
+
+    // Замена журнала текущей историей: временный файл атомарно переименовывается
+    void compact(List<Integer> historyIds) throws IOException {
+        closeChannel();
+        buffer.clear();
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteBuffer content = ByteBuffer.allocate(historyIds.size() * RECORD_SIZE);
+        for (int id : historyIds) {
+            content.putInt(id);
+        }
+        content.flip();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                out.write(content);
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = historyIds.size();
+        nextCompactionCheck = Math.max(MIN_COMPACTION_RECORDS, 4L * historyIds.size());
+    }
+
+    // Передает обработчику id всех просмотров по порядку, возвращает их количество.
+    // Недописанная последняя запись (сбой посреди записи) пропускается
+    long replay(IntConsumer handler) throws IOException {
+        if (!file.exists()) {
+            recordCount = 0;
+            return 0;
+        }
+        long count = 0;
+        ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (in.read(chunk) > 0) {
+                chunk.flip();
+                while (chunk.remaining() >= RECORD_SIZE) {
+                    handler.accept(chunk.getInt());
+                    count++;
+                }
+                chunk.compact();
+            }
+            if (chunk.position() > 0) {
+                // Обрезаем хвост, чтобы следующие записи начинались с границы записи
+                try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    out.truncate(count * RECORD_SIZE);
+                }
+            }
+        }
+        recordCount = count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush(false);
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            if (recordCount < 0) {
+                recordCount = channel.size() / RECORD_SIZE;
+            }
+        }
+        return channel;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package main.ru.practicum.kanban.manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выдача идентификаторов без блокировок.
+ * <p>
+ * Общий счетчик (верхняя граница) хранит первый еще не выданный id. Поток берет у него
+ * блок из blockSize идентификаторов одной операцией compareAndSet и дальше выдает id
+ * из своего блока без обращения к общим данным. Все id в хранилищах менеджера выданы
+ * или учтены этим распределителем, поэтому проверять их уникальность по хранилищам
+ * не нужно.
+ * <p>
+ * Идентификаторы, прочитанные из файла, учитываются через {@link #reserve(int)}: если
+ * такой id меньше границы, выданные потокам блоки сбрасываются, и потоки берут новые.
+ * Из одного потока id выдаются подряд: 1, 2, 3...
+ */
+class IdAllocator {
+    static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final int blockSize;
+    private final AtomicInteger highWater = new AtomicInteger(1);
+    // Номер поколения блоков; увеличивается, когда блоки потоков перестают быть действительными
+    private final AtomicInteger generation = new AtomicInteger();
+    private final ThreadLocal<Block> blocks = new ThreadLocal<>();
+
+    IdAllocator() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    IdAllocator(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Размер блока идентификаторов должен быть положительным");
+        }
+        this.blockSize = blockSize;
+    }
+
+    // Следующий свободный id
+    int next() {
+        Block block = blocks.get();
+        if (block == null || block.next == block.end || block.generation != generation.get()) {
+            block = lease();
+            blocks.set(block);
+        }
+        return block.next++;
+    }
+
+    // Учет занятого id (например, загруженного из файла)
+    void reserve(int id) {
+        int previous = highWater.getAndUpdate(current -> Math.max(current, nextAfter(id)));
+        if (id < previous) {
+            generation.incrementAndGet();
+        }
+    }
+
+    // Подъем границы до сохраненного значения: id меньше nextId больше не выдаются
+    void advanceTo(int nextId) {
+        highWater.getAndUpdate(current -> Math.max(current, nextId));
+    }
+
+    /**
+     * Значение для сохранения в снимке. Если последний блок взят вызывающим потоком,
+     * возвращается следующий id этого блока, иначе - граница. Неиспользованный остаток
+     * блока не пропускается после перезагрузки однопоточного менеджера.
+     */
+    int peekNext() {
+        int high = highWater.get();
+        Block block = blocks.get();
+        if (block != null && block.end == high && block.generation == generation.get()) {
+            return block.next;
+        }
+        return high;
+    }
+
+    private Block lease() {
+        int currentGeneration = generation.get();
+        while (true) {
+            int start = highWater.get();
+            if (start == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Достигнут максимальный ID");
+            }
+            int end = start + Math.min(blockSize, Integer.MAX_VALUE - start);
+            if (highWater.compareAndSet(start, end)) {
+                return new Block(start, end, currentGeneration);
+            }
+        }
+    }
+
+    private static int nextAfter(int id) {
+        return id == Integer.MAX_VALUE ? id : id + 1;
+    }
+
+    // Блок идентификаторов [next, end), принадлежащий одному потоку
+    private static class Block {
+        private int next;
+        private final int end;
+        private final int generation;
+
+        Block(int next, int end, int generation) {
+            this.next = next;
+            this.end = end;
+            this.generation = generation;
+        }
+    }
+}
@@ -5,14 +5,12 @@ import main.ru.practicum.kanban.model.Subtask;
 import main.ru.practicum.kanban.model.Task;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
-    // HashMap для быстрого доступа к узлам по id задачи
-    private final Map<Integer, Node> nodeMap = new HashMap<>();
+    // Таблица с ключами int для быстрого доступа к узлам по id задачи
+    private final IntHashMap<Node> nodeMap = new IntHashMap<>();
     // Головной и хвостовой узлы двусвязного списка
     private Node head;
     private Node tail;
@@ -34,8 +32,9 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
 
         // Если задача уже есть в истории, удаляем старый узел
-        if (nodeMap.containsKey(task.getId())) {
-            removeNode(nodeMap.get(task.getId()));
+        Node existing = nodeMap.get(task.getId());
+        if (existing != null) {
+            removeNode(existing);
         }
 
         // Добавляем новую задачу в конец списка
@@ -78,7 +77,7 @@ public class InMemoryHistoryManager implements HistoryManager {
             return;
         }
 
-        // Удаляем из HashMap
+        // Удаляем из таблицы узлов
         nodeMap.remove(node.task.getId());
 
         // Корректируем связи в двусвязном списке
@@ -114,7 +113,7 @@ public class InMemoryHistoryManager implements HistoryManager {
             tail = newNode;
         }
 
-        // Обновляем HashMap
+        // Обновляем таблицу узлов
         nodeMap.put(task.getId(), newNode);
     }
 
@@ -5,17 +5,47 @@ import main.ru.practicum.kanban.model.Subtask;
 import main.ru.practicum.kanban.model.Task;
 import main.ru.practicum.kanban.model.TaskStatus;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
-    protected int nextId = 1;
+    protected final Map<Integer, Task> tasks;
+    protected final Map<Integer, Epic> epics;
+    protected final Map<Integer, Subtask> subtasks;
+    // Общий индекс id -> запись для всех типов; тип записи определяется ее классом
+    protected final Map<Integer, Task> index;
+    protected final HistoryManager historyManager;
+    // Единый источник id для задач, эпиков и подзадач
+    final IdAllocator idAllocator = new IdAllocator();
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    // Менеджер с собственной реализацией истории просмотров; хранилища - таблицы
+    // с ключами int без упаковки id (см. IntHashMap)
+    protected InMemoryTaskManager(HistoryManager historyManager) {
+        this(new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>(), historyManager);
+    }
+
+    // Менеджер с собственными хранилищами (например, ConcurrentHashMap) и историей
+    protected InMemoryTaskManager(Map<Integer, Task> tasks, Map<Integer, Epic> epics, Map<Integer, Subtask> subtasks,
+                                  Map<Integer, Task> index, HistoryManager historyManager) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.index = index;
+        this.historyManager = historyManager;
+    }
 
     // Методы для обычных задач
     @Override
@@ -24,23 +54,11 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Название задачи не может быть пустым");
         }
         Task task = new Task(name, description);
-        int taskId = generateNextId();
-        // Проверяем, что ID уникален среди всех задач
-        while (tasks.containsKey(taskId) || epics.containsKey(taskId) || subtasks.containsKey(taskId)) {
-            taskId = generateNextId();
-        }
-        task.setId(taskId);
-        tasks.put(task.getId(), task);
+        task.setId(idAllocator.next());
+        storeCreated(task);
         return task.getId();
     }
 
-    private int generateNextId() {
-        if (nextId >= Integer.MAX_VALUE) {
-            throw new IllegalStateException("Достигнут максимальный ID");
-        }
-        return nextId++;
-    }
-
     @Override
     public List<Task> getAllTasks() {
         List<Task> taskCopies = new ArrayList<>();
@@ -66,22 +84,23 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Задача не может быть пустой");
         }
         if (tasks.containsKey(task.getId())) {
-            tasks.put(task.getId(), new Task(task));
+            Task copy = new Task(task);
+            tasks.put(copy.getId(), copy);
+            index.put(copy.getId(), copy);
         }
     }
 
     @Override
     public void deleteTask(int id) {
-        tasks.remove(id);
+        if (tasks.remove(id) != null) {
+            index.remove(id);
+        }
         historyManager.remove(id);
     }
 
     @Override
     public void deleteAllTasks() {
-        for (int taskId : tasks.keySet()) {
-            historyManager.remove(taskId);
-        }
-        tasks.clear();
+        removeAll(tasks);
     }
 
     // Методы для эпиков
@@ -91,13 +110,8 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Название и описание эпика не могут быть пустыми");
         }
         Epic epic = new Epic(name, description);
-        int epicId = generateNextId();
-        // Проверяем, что ID уникален среди всех задач
-        while (tasks.containsKey(epicId) || epics.containsKey(epicId) || subtasks.containsKey(epicId)) {
-            epicId = generateNextId();
-        }
-        epic.setId(epicId);
-        epics.put(epic.getId(), epic);
+        epic.setId(idAllocator.next());
+        storeCreated(epic);
         return epic.getId();
     }
 
@@ -139,23 +153,19 @@ public class InMemoryTaskManager implements TaskManager {
             // Удаляем все подзадачи эпика
             for (int subtaskId : epic.getSubtaskIds()) {
                 subtasks.remove(subtaskId);
+                index.remove(subtaskId);
                 historyManager.remove(subtaskId);
             }
             epics.remove(id);
+            index.remove(id);
             historyManager.remove(id);
         }
     }
 
     @Override
     public void deleteAllEpics() {
-        for (int epicId : epics.keySet()) {
-            historyManager.remove(epicId);
-        }
-        for (int subtaskId : subtasks.keySet()) {
-            historyManager.remove(subtaskId);
-        }
-        epics.clear();
-        subtasks.clear();
+        removeAll(epics);
+        removeAll(subtasks);
     }
 
     // Методы для подзадач
@@ -170,13 +180,9 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         Subtask subtask = new Subtask(name, description, epicId);
-        int subtaskId = generateNextId();
-        // Проверяем, что ID уникален среди всех задач
-        while (tasks.containsKey(subtaskId) || epics.containsKey(subtaskId) || subtasks.containsKey(subtaskId)) {
-            subtaskId = generateNextId();
-        }
-        subtask.setId(subtaskId);
+        subtask.setId(idAllocator.next());
         subtasks.put(subtask.getId(), subtask);
+        index.put(subtask.getId(), subtask);
         epic.addSubtaskId(subtask.getId());
         updateEpicStatus(epic);
     }
@@ -208,7 +214,9 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtasks.containsKey(subtask.getId())) {
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
-                subtasks.put(subtask.getId(), new Subtask(subtask));
+                Subtask copy = new Subtask(subtask);
+                subtasks.put(copy.getId(), copy);
+                index.put(copy.getId(), copy);
                 updateEpicStatus(epic);
             }
         }
@@ -224,16 +232,14 @@ public class InMemoryTaskManager implements TaskManager {
                 updateEpicStatus(epic);
             }
             subtasks.remove(id);
+            index.remove(id);
             historyManager.remove(id);
         }
     }
 
     @Override
     public void deleteAllSubtasks() {
-        for (int subtaskId : subtasks.keySet()) {
-            historyManager.remove(subtaskId);
-        }
-        subtasks.clear();
+        removeAll(subtasks);
         for (Epic epic : epics.values()) {
             epic.clearSubtaskIds();
             updateEpicStatus(epic);
@@ -258,12 +264,199 @@ public class InMemoryTaskManager implements TaskManager {
         return epicSubtasks;
     }
 
+    // Задача любого типа одним поиском по общему индексу
+    @Override
+    public Task getAny(int id) {
+        Task record = index.get(id);
+        if (record == null) {
+            return null;
+        }
+        historyManager.add(record);
+        if (record instanceof Epic epic) {
+            return new Epic(epic);
+        } else if (record instanceof Subtask subtask) {
+            return new Subtask(subtask);
+        }
+        return new Task(record);
+    }
+
     // История просмотров задач
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Integer> importTasks(Stream<? extends Task> items) {
+        return importItems(items, null);
+    }
+
+    @Override
+    public List<Integer> importSubtasks(int epicId, Stream<? extends Subtask> subtasks) {
+        Epic target = epics.get(epicId);
+        if (target == null) {
+            throw new IllegalArgumentException("Эпик с ID " + epicId + " не найден");
+        }
+        return importItems(subtasks, target);
+    }
+
+    // Импорт элементов потока; при заданном target элементы - подзадачи этого эпика
+    private List<Integer> importItems(Stream<? extends Task> items, Epic target) {
+        if (items == null) {
+            throw new IllegalArgumentException("Поток импорта не может быть пустым");
+        }
+        List<Task> staged = new ArrayList<>();
+        // Эпики подзадач в порядке staged (null для задач и эпиков)
+        List<Epic> parents = new ArrayList<>();
+        // Импортированные эпики по id источника
+        Map<Integer, Epic> importedEpics = new HashMap<>();
+
+        // Сначала все элементы проверяются, в хранилище ничего не попадает
+        // и идентификаторы не расходуются
+        Iterator<? extends Task> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            Task item = iterator.next();
+            Task copy = copyForImport(item);
+            Epic parent = null;
+            if (target != null) {
+                parent = target;
+            } else if (item instanceof Subtask subtask) {
+                // Эпик ищется только среди импортированных раньше: id источника
+                // не связаны с идентификаторами менеджера
+                parent = importedEpics.get(subtask.getEpicId());
+                if (parent == null) {
+                    throw new IllegalArgumentException("Эпик с ID " + subtask.getEpicId()
+                            + " не найден среди импортированных раньше");
+                }
+            } else if (copy instanceof Epic epic && importedEpics.putIfAbsent(item.getId(), epic) != null) {
+                throw new IllegalArgumentException("ID эпика " + item.getId() + " повторяется в потоке импорта");
+            }
+            staged.add(copy);
+            parents.add(parent);
+        }
+
+        // Эпик в потоке идет раньше своих подзадач, поэтому к моменту создания
+        // копии подзадачи его новый id уже известен
+        for (int i = 0; i < staged.size(); i++) {
+            Task copy = staged.get(i);
+            Epic parent = parents.get(i);
+            if (parent != null) {
+                Subtask subtask = new Subtask(copy.getName(), copy.getDescription(), parent.getId());
+                subtask.setStatus(copy.getStatus());
+                copy = subtask;
+                staged.set(i, copy);
+            }
+            copy.setId(idAllocator.next());
+        }
+
+        List<Integer> ids = new ArrayList<>(staged.size());
+        Set<Epic> touchedEpics = new LinkedHashSet<>();
+        for (Task task : staged) {
+            if (task instanceof Epic epic) {
+                epics.put(epic.getId(), epic);
+                touchedEpics.add(epic);
+            } else if (task instanceof Subtask subtask) {
+                subtasks.put(subtask.getId(), subtask);
+                Epic epic = epics.get(subtask.getEpicId());
+                epic.addSubtaskId(subtask.getId());
+                touchedEpics.add(epic);
+            } else {
+                tasks.put(task.getId(), task);
+            }
+            index.put(task.getId(), task);
+            ids.add(task.getId());
+        }
+        // Один пересчет статуса на эпик вместо пересчета после каждой подзадачи
+        for (Epic epic : touchedEpics) {
+            updateEpicStatus(epic);
+        }
+        return ids;
+    }
+
+    @Override
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        if (format == null) {
+            throw new IllegalArgumentException("Формат экспорта не может быть пустым");
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("Поток экспорта не может быть пустым");
+        }
+        CsvRowEncoder encoder = new CsvRowEncoder(out);
+        List<Collection<? extends Task>> storages = List.of(tasks.values(), epics.values(), subtasks.values());
+        if (format == ExportFormat.CSV) {
+            encoder.writeAscii(CsvSnapshotCodec.HEADER);
+            encoder.writeByte('\n');
+            for (Collection<? extends Task> storage : storages) {
+                for (Task task : storage) {
+                    encoder.writeTask(outgoing(task));
+                }
+            }
+        } else {
+            JsonLinesEncoder json = new JsonLinesEncoder(encoder);
+            for (Collection<? extends Task> storage : storages) {
+                for (Task task : storage) {
+                    json.writeTask(outgoing(task));
+                }
+            }
+        }
+        encoder.flushBuffer();
+        out.flush();
+    }
+
+    // Копия импортируемого элемента без id; для подзадачи эпик подставляется позже
+    private Task copyForImport(Task item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Импортируемая задача не может быть пустой");
+        }
+        if (item.getName() == null || item.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Название задачи не может быть пустым");
+        }
+
+        Task copy;
+        if (item instanceof Epic) {
+            copy = new Epic(item.getName(), item.getDescription());
+        } else {
+            copy = new Task(item.getName(), item.getDescription());
+        }
+        if (item.getStatus() != null) {
+            copy.setStatus(item.getStatus());
+        }
+        return copy;
+    }
+
+    // Хранимая запись в том виде, в каком она выдается наружу (экспорт);
+    // наследник может дополнить поля, которые не держит в памяти
+    protected Task outgoing(Task record) {
+        return record;
+    }
+
+    /**
+     * Добавление созданной задачи или эпика в хранилище и общий индекс. Запись
+     * попадает в оба отображения до того, как ее id станет известен вызывающему,
+     * поэтому потокобезопасный наследник должен исключать одновременный deleteAll*
+     * (см. {@link StripedTaskManager}).
+     */
+    protected void storeCreated(Task task) {
+        if (task instanceof Epic epic) {
+            epics.put(epic.getId(), epic);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+        index.put(task.getId(), task);
+    }
+
+    // Удаление всех записей хранилища из индекса и истории. Согласованность индекса
+    // с хранилищем при одновременном создании обеспечивают блокировки наследников
+    private void removeAll(Map<Integer, ? extends Task> storage) {
+        Iterator<Integer> iterator = storage.keySet().iterator();
+        while (iterator.hasNext()) {
+            int id = iterator.next();
+            historyManager.remove(id);
+            index.remove(id);
+            iterator.remove();
+        }
+    }
+
     // Обновление статуса эпика на основе подзадач
     private void updateEpicStatus(Epic epic) {
         List<Subtask> epicSubtasks = getEpicSubtasks(epic.getId());
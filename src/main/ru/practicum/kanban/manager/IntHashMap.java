@@ -0,0 +1,407 @@
+package main.ru.practicum.kanban.manager;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Хеш-таблица с ключами int и открытой адресацией (линейное пробирование).
+ * <p>
+ * Ключи лежат в массиве int, значения - в параллельном массиве ссылок: нет ни
+ * объекта Integer на ключ, ни узла на запись, как в HashMap, а соседние id лежат
+ * в соседних ячейках. Ячейка выбирается по тому же перемешиванию, что и в HashMap,
+ * поэтому последовательные id обходятся в том же порядке.
+ * <p>
+ * Удаленная запись помечается меткой, а метки убираются при перестройке таблицы,
+ * поэтому удаление через итератор безопасно. Значения null не поддерживаются.
+ * Методы с ключом int не создают объектов; методы интерфейса Map работают
+ * с Integer и нужны для кода, которому тип таблицы неизвестен.
+ * Не потокобезопасна, одновременное чтение без изменений допустимо.
+ */
+final class IntHashMap<V> extends AbstractMap<Integer, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    // Метка удаленной записи
+    private static final Object REMOVED = new Object();
+
+    private int[] keys;
+    // null - свободная ячейка, REMOVED - удаленная запись
+    private Object[] values;
+    private int size;
+    private int removed;
+    private int threshold;
+    private int modCount;
+
+    private Set<Integer> keySet;
+    private Collection<V> valuesView;
+    private Set<Map.Entry<Integer, V>> entrySet;
+
+    IntHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    IntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Ожидаемый размер не может быть отрицательным");
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть пустым");
+        }
+        int mask = keys.length - 1;
+        int slot = spread(key) & mask;
+        int firstRemoved = -1;
+        Object current;
+        while ((current = values[slot]) != null) {
+            if (current == REMOVED) {
+                if (firstRemoved < 0) {
+                    firstRemoved = slot;
+                }
+            } else if (keys[slot] == key) {
+                V previous = valueAt(slot);
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Новый ключ занимает первую удаленную ячейку на пути, если она была
+        if (firstRemoved >= 0) {
+            slot = firstRemoved;
+            removed--;
+        } else if (size + removed + 1 > threshold) {
+            rehash(size + 1 > threshold / 2 ? keys.length << 1 : keys.length);
+            return put(key, value);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = valueAt(slot);
+        removeAt(slot);
+        return previous;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer id ? get(id.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer id && containsKey(id.intValue());
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer id ? remove(id.intValue()) : null;
+    }
+
+    // Емкость таблицы сохраняется, как в HashMap
+    @Override
+    public void clear() {
+        if (size == 0 && removed == 0) {
+            return;
+        }
+        Arrays.fill(values, null);
+        size = 0;
+        removed = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Integer> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        Integer element(int slot) {
+                            return keys[slot];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+
+                @Override
+                public boolean remove(Object key) {
+                    return IntHashMap.this.remove(key) != null;
+                }
+
+                @Override
+                public void clear() {
+                    IntHashMap.this.clear();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (valuesView == null) {
+            valuesView = new AbstractCollection<>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        V element(int slot) {
+                            return valueAt(slot);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    IntHashMap.this.clear();
+                }
+            };
+        }
+        return valuesView;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<Integer, V>> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        Map.Entry<Integer, V> element(int slot) {
+                            return new Entry(slot);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    IntHashMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    // Ячейка ключа или -1
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = spread(key) & mask;
+        Object current;
+        while ((current = values[slot]) != null) {
+            if (current != REMOVED && keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeAt(int slot) {
+        values[slot] = REMOVED;
+        size--;
+        removed++;
+        modCount++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    // Перестройка таблицы: записи переносятся в новую емкость, метки удаления отбрасываются
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value == null || value == REMOVED) {
+                continue;
+            }
+            int slot = spread(oldKeys[i]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = value;
+        }
+        removed = 0;
+        modCount++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Слишком большой размер таблицы: " + expectedSize);
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    // Перемешивание старших бит, как в HashMap
+    private static int spread(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    // Обход занятых ячеек по порядку; удаление помечает текущую ячейку
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private int next = advance(0);
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        abstract T element(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = advance(next + 1);
+            return element(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(current);
+            current = -1;
+            expectedModCount = modCount;
+        }
+
+        private int advance(int slot) {
+            Object[] table = values;
+            while (slot < table.length && (table[slot] == null || table[slot] == REMOVED)) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+    // Запись, связанная с ячейкой: setValue изменяет таблицу
+    private class Entry implements Map.Entry<Integer, V> {
+        private final int slot;
+
+        Entry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public Integer getKey() {
+            return keys[slot];
+        }
+
+        @Override
+        public V getValue() {
+            return valueAt(slot);
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Значение не может быть пустым");
+            }
+            V previous = valueAt(slot);
+            values[slot] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Map.Entry<?, ?> entry
+                    && getKey().equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return keys[slot] ^ values[slot].hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return keys[slot] + "=" + values[slot];
+        }
+    }
+}
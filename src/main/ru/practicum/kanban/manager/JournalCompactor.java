@@ -0,0 +1,145 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Уплотнение журнала {@link FileBackedTaskManager}.
+ * <p>
+ * Когда активный файл журнала превышает порог (не меньше minLogBytes и не меньше
+ * logRatio от размера снимка), он закрывается ротацией, а фоновый поток сворачивает
+ * снимок и закрытые сегменты в новый снимок и удаляет сегменты. Запись в новый
+ * активный файл при этом продолжается без ожидания. Свертка идет по файлам,
+ * поэтому сбой на любом шаге безопасен: записи журнала идемпотентны, и при
+ * загрузке оставшиеся сегменты просто применяются повторно.
+ */
+class JournalCompactor implements AutoCloseable {
+
+    // Свертка снимка и сегментов в новый снимок; возвращает размер нового снимка
+    interface Folder {
+        long fold(List<File> segments) throws IOException;
+    }
+
+    private final File snapshot;
+    private final TaskJournal journal;
+    private final long minLogBytes;
+    private final double logRatio;
+    private final Folder folder;
+    private final PersistenceMetrics metrics;
+    private final ExecutorService executor;
+    // Запись снимка свертка и контрольная точка менеджера выполняют по очереди
+    private final Object snapshotLock = new Object();
+    private Future<?> pending;
+
+    JournalCompactor(File snapshot, TaskJournal journal, long minLogBytes, double logRatio,
+                     Folder folder, PersistenceMetrics metrics) {
+        this.snapshot = snapshot;
+        this.journal = journal;
+        this.minLogBytes = minLogBytes;
+        this.logRatio = logRatio;
+        this.folder = folder;
+        this.metrics = metrics;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kanban-compactor-" + snapshot.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Проверка порога после записи в журнал; вызывается потоком, пишущим журнал
+    void maybeCompact() throws IOException {
+        long logBytes = journal.getFile().length();
+        if (logBytes < minLogBytes || logBytes < logRatio * snapshot.length()) {
+            return;
+        }
+        synchronized (this) {
+            // Пока идет предыдущая свертка, активный файл просто продолжает расти
+            if (pending != null && !pending.isDone()) {
+                return;
+            }
+        }
+        requestCompaction();
+    }
+
+    // Ротация активного файла и запуск свертки; вызывается потоком, пишущим журнал
+    synchronized void requestCompaction() throws IOException {
+        journal.rotate();
+        pending = executor.submit(() -> {
+            compact();
+            return null;
+        });
+    }
+
+    // Ожидание завершения последней запущенной свертки
+    void awaitIdle() throws IOException {
+        Future<?> current;
+        synchronized (this) {
+            current = pending;
+        }
+        if (current == null) {
+            return;
+        }
+        try {
+            current.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Прервано ожидание уплотнения журнала", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Ошибка уплотнения журнала", e.getCause());
+        }
+    }
+
+    // Запись полного снимка менеджером не должна пересекаться со сверткой
+    void exclusive(AsyncPersistenceWriter.IoAction action) throws IOException {
+        synchronized (snapshotLock) {
+            action.run();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Прервано ожидание уплотнения журнала", e);
+        }
+    }
+
+    private void compact() throws IOException {
+        synchronized (snapshotLock) {
+            List<File> segments = journal.sealedSegments();
+            if (segments.isEmpty()) {
+                return;
+            }
+
+            long bytesBefore = snapshot.length();
+            for (File segment : segments) {
+                bytesBefore += segment.length();
+            }
+            long start = System.nanoTime();
+
+            try {
+                long bytesAfter = folder.fold(segments);
+                // Снимок уже содержит изменения сегментов
+                journal.retire(segments);
+                metrics.recordCompaction(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        Math.max(0, bytesBefore - bytesAfter));
+            } catch (IOException | RuntimeException e) {
+                // Сегменты остаются на диске и будут свернуты при следующем уплотнении
+                System.err.println("Warning: Journal compaction failed: " + e.getMessage());
+                throw e;
+            }
+        }
+    }
+}
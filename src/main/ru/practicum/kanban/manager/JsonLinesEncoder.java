@@ -0,0 +1,74 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskType;
+
+import java.io.IOException;
+
+/**
+ * Запись задач в формате JSON Lines без промежуточных объектов.
+ * Байтовый буфер и кодирование UTF-8 общие с {@link CsvRowEncoder}.
+ */
+class JsonLinesEncoder {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final CsvRowEncoder out;
+
+    JsonLinesEncoder(CsvRowEncoder out) {
+        this.out = out;
+    }
+
+    // Объект задачи и перевод строки; поле epic есть только у подзадач
+    void writeTask(Task task) throws IOException {
+        TaskType type = CsvSnapshotCodec.getTaskType(task);
+        out.writeAscii("{\"id\":");
+        out.writeInt(task.getId());
+        out.writeAscii(",\"type\":\"");
+        out.writeAscii(type.name());
+        out.writeAscii("\",\"name\":");
+        writeString(task.getName());
+        out.writeAscii(",\"status\":\"");
+        out.writeAscii(task.getStatus().name());
+        out.writeAscii("\",\"description\":");
+        writeString(task.getDescription());
+        if (type == TaskType.SUBTASK) {
+            out.writeAscii(",\"epic\":");
+            out.writeInt(((Subtask) task).getEpicId());
+        }
+        out.writeByte('}');
+        out.writeByte('\n');
+    }
+
+    // Строка JSON с экранированием кавычек, обратной косой черты и управляющих символов
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeAscii("null");
+            return;
+        }
+        out.writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.writeByte('\\');
+                out.writeByte(c);
+            } else if (c == '\n') {
+                out.writeAscii("\\n");
+            } else if (c == '\r') {
+                out.writeAscii("\\r");
+            } else if (c == '\t') {
+                out.writeAscii("\\t");
+            } else if (c < 0x20) {
+                out.writeAscii("\\u00");
+                out.writeByte(HEX[c >> 4]);
+                out.writeByte(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                out.writeByte(c);
+            } else {
+                i = out.writeNonAscii(value, i);
+            }
+        }
+        out.writeByte('"');
+    }
+}
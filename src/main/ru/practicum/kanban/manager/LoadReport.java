@@ -0,0 +1,63 @@
+package main.ru.practicum.kanban.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Отчет о загрузке {@link FileBackedTaskManager}: результат проверки
+ * контрольной суммы снимка и записи, которые не удалось разобрать.
+ */
+public final class LoadReport {
+    // Сколько пропущенных записей сохраняется для диагностики
+    static final int MAX_SAMPLES = 10;
+
+    public enum ChecksumStatus {
+        // Контрольная сумма совпала
+        VERIFIED,
+        // Снимок записан без контрольной суммы (прежняя версия) или отсутствует
+        MISSING,
+        // Контрольная сумма не совпала: снимок поврежден
+        MISMATCH
+    }
+
+    private ChecksumStatus checksumStatus = ChecksumStatus.MISSING;
+    private int skippedRecords;
+    private final List<String> skippedSamples = new ArrayList<>();
+
+    public ChecksumStatus getChecksumStatus() {
+        return checksumStatus;
+    }
+
+    public int getSkippedRecords() {
+        return skippedRecords;
+    }
+
+    // Первые пропущенные записи (не более MAX_SAMPLES)
+    public List<String> getSkippedSamples() {
+        return new ArrayList<>(skippedSamples);
+    }
+
+    // Загрузка без пропусков и с проверенной контрольной суммой
+    public boolean isClean() {
+        return checksumStatus == ChecksumStatus.VERIFIED && skippedRecords == 0;
+    }
+
+    void setChecksumStatus(ChecksumStatus checksumStatus) {
+        this.checksumStatus = checksumStatus;
+    }
+
+    void addSkippedRecord(String record) {
+        skippedRecords++;
+        if (skippedSamples.size() < MAX_SAMPLES) {
+            skippedSamples.add(record);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{" +
+                "checksumStatus=" + checksumStatus +
+                ", skippedRecords=" + skippedRecords +
+                '}';
+    }
+}
@@ -8,10 +8,37 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    // Менеджер для доступа из нескольких потоков: чтения выполняются параллельно
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    // Менеджер для доступа из нескольких потоков с блокировками по полосам id:
+    // изменения задач и подзадач разных эпиков не мешают друг другу
+    public static TaskManager getStriped() {
+        return new StripedTaskManager();
+    }
+
     public static TaskManager getFileBackedTaskManager(File file) {
         return new FileBackedTaskManager(file);
     }
 
+    public static TaskManager getFileBackedTaskManager(File file, PersistenceMode mode) {
+        return new FileBackedTaskManager(file, mode);
+    }
+
+    public static TaskManager getFileBackedTaskManager(File file, SnapshotFormat format) {
+        return new FileBackedTaskManager(file, PersistenceSettings.defaults().withSnapshotFormat(format));
+    }
+
+    public static TaskManager getFileBackedTaskManager(File file, Durability durability) {
+        return new FileBackedTaskManager(file, PersistenceSettings.defaults().withDurability(durability));
+    }
+
+    public static TaskManager getFileBackedTaskManager(File file, PersistenceSettings settings) {
+        return new FileBackedTaskManager(file, settings);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
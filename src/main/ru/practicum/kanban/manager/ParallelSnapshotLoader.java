@@ -0,0 +1,223 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Параллельная загрузка CSV-снимка.
+ * <p>
+ * Первый проход быстро сканирует байты файла и делит область задач на куски,
+ * выровненные по границам записей (перевод строки вне кавычек; байты '"' и '\n'
+ * не встречаются внутри многобайтовых символов UTF-8). Затем куски разбираются
+ * параллельно в ForkJoinPool, а результаты передаются получателю в порядке
+ * следования в файле: сначала задачи и эпики, затем подзадачи, чтобы списки
+ * подзадач эпиков восстанавливались детерминированно.
+ */
+class ParallelSnapshotLoader {
+    static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int SCAN_BUFFER_SIZE = 256 * 1024;
+
+    private final int parallelism;
+    private final int chunkSize;
+
+    ParallelSnapshotLoader(int parallelism) {
+        this(parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    ParallelSnapshotLoader(int parallelism, int chunkSize) {
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Загрузка из открытого файла снимка. Контрольная сумма считается последовательно:
+     * сканированием по области задач и чтением истории до конца файла.
+     */
+    void load(FileChannel channel, SnapshotCodec.Sink sink, SnapshotChecksum checksum) throws IOException {
+        Layout layout = scan(channel, checksum);
+        if (layout.boundaries.isEmpty()) {
+            return;
+        }
+
+        List<Chunk> chunks = parseChunks(channel, layout);
+
+        // Детерминированное слияние в порядке файла
+        for (Chunk chunk : chunks) {
+            for (Task task : chunk.tasks) {
+                if (!(task instanceof Subtask)) {
+                    sink.onTask(task);
+                }
+            }
+            for (String record : chunk.skipped) {
+                sink.onSkippedRecord(record);
+            }
+        }
+        for (Chunk chunk : chunks) {
+            for (Task task : chunk.tasks) {
+                if (task instanceof Subtask) {
+                    sink.onTask(task);
+                }
+            }
+        }
+
+        if (layout.historyStart >= 0) {
+            readHistory(channel, layout.historyStart, channel.size(), sink, checksum);
+        }
+    }
+
+    // Разбивка файла на куски по границам записей; просканированные байты учитываются в сумме
+    private Layout scan(FileChannel channel, SnapshotChecksum checksum) throws IOException {
+        Layout layout = new Layout();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = 0;
+        long recordStart = 0;
+        long nextCut = 0;
+        boolean headerSkipped = false;
+        boolean inQuotes = false;
+        boolean blank = true;
+
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                    blank = false;
+                } else if (b == '\n' && !inQuotes) {
+                    long next = position + i + 1;
+                    if (!headerSkipped) {
+                        headerSkipped = true;
+                        layout.boundaries.add(next);
+                        nextCut = next + chunkSize;
+                    } else if (blank) {
+                        // Пустая строка отделяет задачи от истории
+                        layout.dataEnd = recordStart;
+                        layout.historyStart = next;
+                        checksum.update(buffer.array(), 0, i + 1);
+                        return layout;
+                    } else if (next >= nextCut) {
+                        layout.boundaries.add(next);
+                        nextCut = next + chunkSize;
+                    }
+                    recordStart = next;
+                    blank = true;
+                } else if (b != ' ' && b != '\r' && b != '\t') {
+                    blank = false;
+                }
+            }
+            checksum.update(buffer.array(), 0, read);
+            position += read;
+        }
+
+        layout.dataEnd = position;
+        return layout;
+    }
+
+    private List<Chunk> parseChunks(FileChannel channel, Layout layout) throws IOException {
+        List<Long> boundaries = layout.boundaries;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Chunk>> futures = new ArrayList<>(boundaries.size());
+            for (int i = 0; i < boundaries.size(); i++) {
+                long start = boundaries.get(i);
+                long end = i + 1 < boundaries.size() ? boundaries.get(i + 1) : layout.dataEnd;
+                if (start < end) {
+                    futures.add(pool.submit(() -> parseChunk(channel, start, end)));
+                }
+            }
+
+            List<Chunk> chunks = new ArrayList<>(futures.size());
+            for (ForkJoinTask<Chunk> future : futures) {
+                chunks.add(future.get());
+            }
+            return chunks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Прервана параллельная загрузка снимка", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException("Ошибка параллельной загрузки снимка", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Chunk parseChunk(FileChannel channel, long start, long end) {
+        try {
+            Chunk result = new Chunk();
+            CsvRecordReader reader = new CsvRecordReader(new StringReader(readRange(channel, start, end)));
+            CsvTaskParser parser = new CsvTaskParser();
+            CharSequence record;
+            while ((record = reader.nextRecordChars()) != null) {
+                Task task = parser.parse(record);
+                if (task != null) {
+                    result.tasks.add(task);
+                } else {
+                    result.skipped.add(record.toString().trim());
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readHistory(FileChannel channel, long start, long end, SnapshotCodec.Sink sink,
+                                    SnapshotChecksum checksum) throws IOException {
+        ByteBuffer history = readBytes(channel, start, end);
+        checksum.update(history.array(), 0, history.position());
+        String text = new String(history.array(), 0, history.position(), StandardCharsets.UTF_8);
+        CsvSnapshotCodec.readHistorySection(new CsvRecordReader(new StringReader(text)), sink);
+    }
+
+    private static String readRange(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = readBytes(channel, start, end);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    // Позиционное чтение безопасно при одновременном доступе из нескольких потоков
+    private static ByteBuffer readBytes(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - start));
+        long position = start;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        return buffer;
+    }
+
+    // Результат разбора одного куска
+    private static class Chunk {
+        final List<Task> tasks = new ArrayList<>();
+        final List<String> skipped = new ArrayList<>();
+    }
+
+    // Результат первого прохода
+    private static class Layout {
+        // Начала кусков; первый кусок начинается сразу после заголовка
+        final List<Long> boundaries = new ArrayList<>();
+        long dataEnd;
+        long historyStart = -1;
+    }
+}
@@ -0,0 +1,51 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Снимок, разбитый на части в отдельном каталоге: при сбросе перезаписываются
+ * только части, измененные с прошлого сброса.
+ * Реализации - {@link SegmentedStore} (по диапазонам id) и {@link ShardedStore} (по типам задач).
+ */
+interface PartitionedStore {
+
+    File getDirectory();
+
+    boolean exists();
+
+    // Учет изменения записи; реализация сама определяет, к какой части она относится
+    void markDirty(TaskType type, int id);
+
+    default void markDirty(TaskType type, Collection<Integer> ids) {
+        for (Integer id : ids) {
+            markDirty(type, id);
+        }
+    }
+
+    /**
+     * Подготовка сброса в вызывающем потоке: содержимое измененных частей
+     * формируется в памяти, чтобы запись можно было выполнить в фоновом потоке.
+     * storage возвращает хранилище задач указанного типа, nextId сохраняется вместе с историей.
+     */
+    Batch prepare(Function<TaskType, Map<Integer, ? extends Task>> storage, List<Integer> historyIds,
+                  int nextId, SnapshotCodec codec, boolean full) throws IOException;
+
+    // Загрузка всех частей; compression - кодек сжатия из настроек или null
+    LoadReport.ChecksumStatus load(SnapshotCodec.Sink sink, CompressionCodec compression) throws IOException;
+
+    // Подготовленный сброс
+    interface Batch {
+        boolean isEmpty();
+
+        // Запись на диск (force - со сбросом), возвращает количество записанных байтов
+        long write(boolean force) throws IOException;
+    }
+}
@@ -0,0 +1,93 @@
+package main.ru.practicum.kanban.manager;
+
+/**
+ * Метрики записи {@link FileBackedTaskManager}: сколько байтов записано на диск
+ * при каждом сбросе и результаты уплотнения журнала. Сброс и уплотнение
+ * выполняются фоновыми потоками, поэтому методы синхронизированы.
+ */
+public final class PersistenceMetrics {
+    private long flushCount;
+    private long totalBytesWritten;
+    private long lastFlushBytes;
+    private long maxFlushBytes;
+    private long compactionCount;
+    private long lastCompactionMillis;
+    private long totalCompactionMillis;
+    private long lastReclaimedBytes;
+    private long totalReclaimedBytes;
+
+    // Количество выполненных сбросов
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    // Всего байтов записано с момента создания менеджера
+    public synchronized long getTotalBytesWritten() {
+        return totalBytesWritten;
+    }
+
+    // Байтов записано при последнем сбросе
+    public synchronized long getLastFlushBytes() {
+        return lastFlushBytes;
+    }
+
+    // Наибольший объем одного сброса
+    public synchronized long getMaxFlushBytes() {
+        return maxFlushBytes;
+    }
+
+    public synchronized long getAverageBytesPerFlush() {
+        return flushCount == 0 ? 0 : totalBytesWritten / flushCount;
+    }
+
+    // Количество выполненных уплотнений журнала
+    public synchronized long getCompactionCount() {
+        return compactionCount;
+    }
+
+    // Длительность последнего уплотнения, мс
+    public synchronized long getLastCompactionMillis() {
+        return lastCompactionMillis;
+    }
+
+    public synchronized long getTotalCompactionMillis() {
+        return totalCompactionMillis;
+    }
+
+    // Сколько байтов на диске освободило последнее уплотнение
+    public synchronized long getLastReclaimedBytes() {
+        return lastReclaimedBytes;
+    }
+
+    public synchronized long getTotalReclaimedBytes() {
+        return totalReclaimedBytes;
+    }
+
+    synchronized void recordFlush(long bytes) {
+        flushCount++;
+        totalBytesWritten += bytes;
+        lastFlushBytes = bytes;
+        maxFlushBytes = Math.max(maxFlushBytes, bytes);
+    }
+
+    synchronized void recordCompaction(long millis, long reclaimedBytes) {
+        compactionCount++;
+        lastCompactionMillis = millis;
+        totalCompactionMillis += millis;
+        lastReclaimedBytes = reclaimedBytes;
+        totalReclaimedBytes += reclaimedBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PersistenceMetrics{" +
+                "flushCount=" + flushCount +
+                ", totalBytesWritten=" + totalBytesWritten +
+                ", lastFlushBytes=" + lastFlushBytes +
+                ", maxFlushBytes=" + maxFlushBytes +
+                ", compactionCount=" + compactionCount +
+                ", totalCompactionMillis=" + totalCompactionMillis +
+                ", totalReclaimedBytes=" + totalReclaimedBytes +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package main.ru.practicum.kanban.manager;
+
+/**
+ * Режим сохранения {@link FileBackedTaskManager}.
+ */
+public enum PersistenceMode {
+    // Полная перезапись CSV-файла после каждого изменения
+    SNAPSHOT,
+    // Дописывание изменений в журнал, полный снимок - только при контрольной точке
+    JOURNAL,
+    // Снимок разбит на сегменты по диапазонам id, перезаписываются только измененные сегменты
+    SEGMENTED,
+    // Снимок разбит по типам задач: отдельные файлы задач, эпиков, подзадач и истории,
+    // перезаписываются только измененные; при загрузке файлы читаются параллельно
+    SHARDED
+}
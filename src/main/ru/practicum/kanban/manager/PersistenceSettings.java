@@ -0,0 +1,299 @@
+package main.ru.practicum.kanban.manager;
+
+/**
+ * Настройки сохранения {@link FileBackedTaskManager}.
+ * Объект неизменяемый: методы with* возвращают новую копию.
+ */
+public final class PersistenceSettings {
+    private PersistenceMode mode = PersistenceMode.SNAPSHOT;
+    private int flushEveryMutations = 1;
+    private long flushIntervalMillis;
+    private int asyncMaxLag;
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
+    private int loadParallelism = 1;
+    private int segmentSize = 1024;
+    private boolean memoryMappedLoad;
+    private int descriptionCacheSize;
+    private long compactionMinLogBytes;
+    private double compactionLogRatio;
+    private Durability durability = Durability.FSYNC_PER_BATCH;
+    private CompressionCodec compression;
+    private int compressionBlockSize = CompressedSnapshotCodec.DEFAULT_BLOCK_SIZE;
+    private long recoveryRetentionMillis;
+
+    private PersistenceSettings() {
+    }
+
+    // Конструктор копирования
+    private PersistenceSettings(PersistenceSettings other) {
+        this.mode = other.mode;
+        this.flushEveryMutations = other.flushEveryMutations;
+        this.flushIntervalMillis = other.flushIntervalMillis;
+        this.asyncMaxLag = other.asyncMaxLag;
+        this.snapshotFormat = other.snapshotFormat;
+        this.loadParallelism = other.loadParallelism;
+        this.segmentSize = other.segmentSize;
+        this.memoryMappedLoad = other.memoryMappedLoad;
+        this.descriptionCacheSize = other.descriptionCacheSize;
+        this.compactionMinLogBytes = other.compactionMinLogBytes;
+        this.compactionLogRatio = other.compactionLogRatio;
+        this.durability = other.durability;
+        this.compression = other.compression;
+        this.compressionBlockSize = other.compressionBlockSize;
+        this.recoveryRetentionMillis = other.recoveryRetentionMillis;
+    }
+
+    // Поведение по умолчанию: синхронный полный снимок после каждого изменения
+    public static PersistenceSettings defaults() {
+        return new PersistenceSettings();
+    }
+
+    public PersistenceSettings withMode(PersistenceMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Режим сохранения не может быть пустым");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.mode = mode;
+        return copy;
+    }
+
+    /**
+     * Группировка записи: изменения накапливаются и сбрасываются на диск, когда
+     * их набралось maxMutations или с прошлого сброса прошло maxDelayMillis
+     * (0 - без ограничения по времени). По истечении интервала неполный пакет
+     * сбрасывает фоновый поток, не дожидаясь следующего изменения.
+     */
+    public PersistenceSettings withCoalescing(int maxMutations, long maxDelayMillis) {
+        if (maxMutations < 1) {
+            throw new IllegalArgumentException("Количество изменений в пакете должно быть положительным");
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Интервал сброса не может быть отрицательным");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.flushEveryMutations = maxMutations;
+        copy.flushIntervalMillis = maxDelayMillis;
+        return copy;
+    }
+
+    /**
+     * Асинхронная запись: изменения передаются фоновому потоку, вызывающий поток
+     * не ждет диска. Если поток записи отстает больше чем на maxLag пакетов,
+     * вызывающий поток блокируется.
+     */
+    public PersistenceSettings withAsyncWriter(int maxLag) {
+        if (maxLag < 1) {
+            throw new IllegalArgumentException("Допустимое отставание записи должно быть положительным");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.asyncMaxLag = maxLag;
+        return copy;
+    }
+
+    // Формат файла снимка; при загрузке формат определяется по содержимому файла
+    public PersistenceSettings withSnapshotFormat(SnapshotFormat snapshotFormat) {
+        if (snapshotFormat == null) {
+            throw new IllegalArgumentException("Формат снимка не может быть пустым");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.snapshotFormat = snapshotFormat;
+        return copy;
+    }
+
+    /**
+     * Параллельная загрузка CSV-снимка в parallelism потоков
+     * (например, Runtime.getRuntime().availableProcessors()); 1 - последовательная загрузка.
+     * Двоичный снимок всегда загружается последовательно.
+     * У сжатого снимка в parallelism потоков распаковываются блоки.
+     */
+    public PersistenceSettings withParallelLoad(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Количество потоков загрузки должно быть положительным");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.loadParallelism = parallelism;
+        return copy;
+    }
+
+    // Количество идентификаторов в одном сегменте (режим SEGMENTED)
+    public PersistenceSettings withSegmentSize(int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Размер сегмента должен быть положительным");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.segmentSize = segmentSize;
+        return copy;
+    }
+
+    /**
+     * Загрузка двоичного снимка через отображение файла в память (FileChannel.map)
+     * без промежуточных потоков. На CSV-снимки не влияет.
+     */
+    public PersistenceSettings withMemoryMappedLoad(boolean memoryMappedLoad) {
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.memoryMappedLoad = memoryMappedLoad;
+        return copy;
+    }
+
+    /**
+     * Ленивая загрузка описаний: в памяти остаются id, тип, статус, эпик и название,
+     * а описание хранится в файле рядом со снимком и читается при обращении.
+     * Последние cacheSize прочитанных описаний кэшируются.
+     */
+    public PersistenceSettings withLazyDescriptions(int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Размер кэша описаний должен быть положительным");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.descriptionCacheSize = cacheSize;
+        return copy;
+    }
+
+    /**
+     * Фоновое уплотнение журнала (режим JOURNAL): когда журнал вырастает до minLogBytes
+     * и при этом до logToSnapshotRatio от размера снимка, он сворачивается в новый снимок
+     * без остановки записи. Заменяет синхронную контрольную точку по числу записей.
+     */
+    public PersistenceSettings withCompaction(long minLogBytes, double logToSnapshotRatio) {
+        if (minLogBytes < 1) {
+            throw new IllegalArgumentException("Порог размера журнала должен быть положительным");
+        }
+        if (logToSnapshotRatio < 0 || Double.isNaN(logToSnapshotRatio)) {
+            throw new IllegalArgumentException("Отношение размера журнала к снимку не может быть отрицательным");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.compactionMinLogBytes = minLogBytes;
+        copy.compactionLogRatio = logToSnapshotRatio;
+        return copy;
+    }
+
+    // Гарантии сохранности; по умолчанию - fsync на каждый пакет изменений
+    public PersistenceSettings withDurability(Durability durability) {
+        if (durability == null) {
+            throw new IllegalArgumentException("Уровень сохранности не может быть пустым");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.durability = durability;
+        return copy;
+    }
+
+    // Сжатие снимка блоками по умолчанию (256 КБ)
+    public PersistenceSettings withCompression(CompressionCodec compression) {
+        return withCompression(compression, CompressedSnapshotCodec.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Сжатие снимка и сегментов независимыми блоками по blockSize байт исходных данных
+     * (например, {@link StandardCompression#GZIP}). Сжатый снимок загружается потоком,
+     * без отображения в память и разбиения CSV на куски; журнал не сжимается.
+     * При загрузке сжатие определяется по содержимому файла.
+     */
+    public PersistenceSettings withCompression(CompressionCodec compression, int blockSize) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Алгоритм сжатия не может быть пустым");
+        }
+        if (compression.id() < 1 || compression.id() > 255) {
+            throw new IllegalArgumentException("Код алгоритма сжатия должен быть от 1 до 255");
+        }
+        if (blockSize < 1 || blockSize > BlockCompressedInputStream.MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Размер блока сжатия должен быть от 1 байта до 64 МБ");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.compression = compression;
+        copy.compressionBlockSize = blockSize;
+        return copy;
+    }
+
+    /**
+     * Архив для восстановления на момент времени (режим JOURNAL, см. {@link RecoveryArchive}):
+     * снимки контрольных точек и свернутые файлы журнала хранятся не меньше retentionMillis.
+     */
+    public PersistenceSettings withRecoveryArchive(long retentionMillis) {
+        if (retentionMillis < 1) {
+            throw new IllegalArgumentException("Срок хранения архива должен быть положительным");
+        }
+        PersistenceSettings copy = new PersistenceSettings(this);
+        copy.recoveryRetentionMillis = retentionMillis;
+        return copy;
+    }
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public int getFlushEveryMutations() {
+        return flushEveryMutations;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public boolean isAsync() {
+        return asyncMaxLag > 0;
+    }
+
+    public int getAsyncMaxLag() {
+        return asyncMaxLag;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public int getLoadParallelism() {
+        return loadParallelism;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public boolean isMemoryMappedLoad() {
+        return memoryMappedLoad;
+    }
+
+    public boolean isLazyDescriptions() {
+        return descriptionCacheSize > 0;
+    }
+
+    public int getDescriptionCacheSize() {
+        return descriptionCacheSize;
+    }
+
+    public boolean isCompaction() {
+        return compactionMinLogBytes > 0;
+    }
+
+    public long getCompactionMinLogBytes() {
+        return compactionMinLogBytes;
+    }
+
+    public double getCompactionLogRatio() {
+        return compactionLogRatio;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public boolean isCompression() {
+        return compression != null;
+    }
+
+    public CompressionCodec getCompression() {
+        return compression;
+    }
+
+    public int getCompressionBlockSize() {
+        return compressionBlockSize;
+    }
+
+    public boolean isRecoveryArchive() {
+        return recoveryRetentionMillis > 0;
+    }
+
+    public long getRecoveryRetentionMillis() {
+        return recoveryRetentionMillis;
+    }
+}
@@ -0,0 +1,173 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Архив для восстановления на момент времени (режим JOURNAL).
+ * <p>
+ * Каталог "&lt;файл&gt;.archive" содержит снимки "snapshot-SSS-TTT", где SSS - номер
+ * последнего вошедшего в снимок изменения, а TTT - время этого изменения, и файлы
+ * журнала "journal-SSS", где SSS - номер первой записи файла. Имена файлов служат
+ * индексом: для восстановления берется ближайший снимок не позже точки и только
+ * те файлы журнала, что идут после него, поэтому вся история не перечитывается.
+ * <p>
+ * Снимок попадает в архив жесткой ссылкой (копией, если ссылки не поддерживаются):
+ * основной снимок заменяется переименованием, и ссылка продолжает указывать
+ * на прежнее содержимое. Файлы старше окна хранения удаляются, но самый новый снимок
+ * до начала окна остается, чтобы окно было покрыто целиком.
+ */
+class RecoveryArchive {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String JOURNAL_PREFIX = "journal-";
+
+    private final File directory;
+    private final long retentionMillis;
+
+    RecoveryArchive(File directory, long retentionMillis) {
+        this.directory = directory;
+        this.retentionMillis = retentionMillis;
+    }
+
+    // Каталог архива располагается рядом с файлом снимка
+    static File directoryFor(File file) {
+        return new File(file.getPath() + ".archive");
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    // Перенос файла журнала в архив; файл без номеров записей (прежний формат или пустой) удаляется
+    synchronized void addJournal(File journalFile) throws IOException {
+        long firstSequence = TaskJournal.firstSequence(journalFile);
+        if (firstSequence < 0) {
+            Files.deleteIfExists(journalFile.toPath());
+            return;
+        }
+        Files.createDirectories(directory.toPath());
+        File target = new File(directory, String.format("%s%019d", JOURNAL_PREFIX, firstSequence));
+        Files.move(journalFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Ссылка на записанный снимок и удаление файлов, вышедших из окна хранения
+    synchronized void addSnapshot(File snapshot, long sequence, long epochMillis) throws IOException {
+        if (!snapshot.exists()) {
+            return;
+        }
+        Files.createDirectories(directory.toPath());
+        File target = new File(directory, String.format("%s%019d-%d", SNAPSHOT_PREFIX, sequence, epochMillis));
+        Files.deleteIfExists(target.toPath());
+        try {
+            Files.createLink(target.toPath(), snapshot.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(snapshot.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        prune(System.currentTimeMillis());
+    }
+
+    // Ближайший к точке снимок, не содержащий изменений после нее; null, если точка вне окна хранения
+    synchronized Snapshot findSnapshot(RecoveryPoint point) {
+        Snapshot found = null;
+        for (Snapshot snapshot : listSnapshots()) {
+            if (point.includes(snapshot.sequence, snapshot.epochMillis)) {
+                found = snapshot;
+            } else {
+                break;
+            }
+        }
+        return found;
+    }
+
+    // Самый новый снимок архива или null
+    synchronized Snapshot latestSnapshot() {
+        List<Snapshot> snapshots = listSnapshots();
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    // Файлы журнала, которые могут содержать записи с номерами больше sequence, по возрастанию
+    synchronized List<File> journalsAfter(long sequence) {
+        TreeMap<Long, File> journals = listJournals();
+        Long from = journals.floorKey(sequence + 1);
+        return new ArrayList<>((from == null ? journals : journals.tailMap(from, true)).values());
+    }
+
+    // Удаление снимков старше окна (кроме самого нового из них) и журналов, целиком вошедших в снимки
+    private void prune(long now) throws IOException {
+        List<Snapshot> snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        int oldestKept = 0;
+        while (oldestKept + 1 < snapshots.size() && snapshots.get(oldestKept + 1).epochMillis < now - retentionMillis) {
+            oldestKept++;
+        }
+        for (int i = 0; i < oldestKept; i++) {
+            Files.deleteIfExists(snapshots.get(i).file.toPath());
+        }
+
+        long keptSequence = snapshots.get(oldestKept).sequence;
+        long latestSequence = snapshots.get(snapshots.size() - 1).sequence;
+        TreeMap<Long, File> journals = listJournals();
+        for (Map.Entry<Long, File> entry : journals.entrySet()) {
+            // Последний файл архива не заходит дальше самого нового снимка
+            Long next = journals.higherKey(entry.getKey());
+            long lastSequence = next != null ? next - 1 : latestSequence;
+            if (lastSequence > keptSequence) {
+                break;
+            }
+            Files.deleteIfExists(entry.getValue().toPath());
+        }
+    }
+
+    // Снимки по возрастанию номера
+    private List<Snapshot> listSnapshots() {
+        TreeMap<Long, Snapshot> snapshots = new TreeMap<>();
+        for (File file : listFiles(SNAPSHOT_PREFIX)) {
+            String[] parts = file.getName().substring(SNAPSHOT_PREFIX.length()).split("-");
+            try {
+                long sequence = Long.parseLong(parts[0]);
+                snapshots.put(sequence, new Snapshot(file, sequence, Long.parseLong(parts[1])));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                // Посторонний файл
+            }
+        }
+        return new ArrayList<>(snapshots.values());
+    }
+
+    private TreeMap<Long, File> listJournals() {
+        TreeMap<Long, File> journals = new TreeMap<>();
+        for (File file : listFiles(JOURNAL_PREFIX)) {
+            try {
+                journals.put(Long.parseLong(file.getName().substring(JOURNAL_PREFIX.length())), file);
+            } catch (NumberFormatException e) {
+                // Посторонний файл
+            }
+        }
+        return journals;
+    }
+
+    private List<File> listFiles(String prefix) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix));
+        return files == null ? List.of() : List.of(files);
+    }
+
+    // Снимок архива: файл, номер и время последнего вошедшего в него изменения
+    static class Snapshot {
+        final File file;
+        final long sequence;
+        final long epochMillis;
+
+        Snapshot(File file, long sequence, long epochMillis) {
+            this.file = file;
+            this.sequence = sequence;
+            this.epochMillis = epochMillis;
+        }
+    }
+}
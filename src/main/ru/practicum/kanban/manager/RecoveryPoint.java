@@ -0,0 +1,48 @@
+package main.ru.practicum.kanban.manager;
+
+/**
+ * Точка восстановления доски (см. {@link FileBackedTaskManager#loadFromFile(java.io.File,
+ * PersistenceSettings, RecoveryPoint)}): номер изменения или момент времени.
+ * В состояние входят все изменения с номером не больше заданного
+ * или зафиксированные не позже заданного момента.
+ */
+public final class RecoveryPoint {
+    private final long sequence;
+    private final long epochMillis;
+
+    private RecoveryPoint(long sequence, long epochMillis) {
+        this.sequence = sequence;
+        this.epochMillis = epochMillis;
+    }
+
+    // Состояние после изменения с номером sequence (см. FileBackedTaskManager.getLastSequence())
+    public static RecoveryPoint atSequence(long sequence) {
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Номер изменения не может быть отрицательным");
+        }
+        return new RecoveryPoint(sequence, Long.MAX_VALUE);
+    }
+
+    // Состояние на момент epochMillis (миллисекунды от начала эпохи, как System.currentTimeMillis())
+    public static RecoveryPoint atTime(long epochMillis) {
+        return new RecoveryPoint(Long.MAX_VALUE, epochMillis);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    // Входит ли изменение в восстанавливаемое состояние
+    boolean includes(long sequence, long epochMillis) {
+        return sequence <= this.sequence && epochMillis <= this.epochMillis;
+    }
+
+    @Override
+    public String toString() {
+        return sequence != Long.MAX_VALUE ? "seq " + sequence : "time " + epochMillis;
+    }
+}
@@ -0,0 +1,280 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Снимок, разбитый на сегменты по диапазонам идентификаторов.
+ * <p>
+ * Каталог "&lt;файл&gt;.segments" содержит файлы segment-NNNNNNNN с задачами, у которых
+ * id лежит в диапазоне [N * segmentSize, (N + 1) * segmentSize), и файл history.
+ * Изменение задачи помечает ее сегмент как измененный; при сбросе перезаписываются
+ * только измененные сегменты, каждый - атомарно и с контрольной суммой
+ * (см. {@link SnapshotFiles}). Сегменты пишутся в формате снимка из настроек.
+ */
+class SegmentedStore implements PartitionedStore {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String HISTORY_FILE = "history";
+
+    private final File directory;
+    private final int segmentSize;
+    // Номера сегментов, измененных после последнего сброса
+    private final Set<Integer> dirtySegments = new TreeSet<>();
+    // История и следующий id на момент последнего сброса: файл истории
+    // перезаписывается только при их изменении
+    private List<Integer> persistedHistory = List.of();
+    private int persistedNextId;
+
+    SegmentedStore(File directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    // Каталог сегментов располагается рядом с файлом снимка
+    static File directoryFor(File file) {
+        return new File(file.getPath() + ".segments");
+    }
+
+    @Override
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public boolean exists() {
+        return directory.isDirectory();
+    }
+
+    @Override
+    public void markDirty(TaskType type, int id) {
+        dirtySegments.add(Math.floorDiv(id, segmentSize));
+    }
+
+    // При полной перезаписи (full) лишние файлы сегментов удаляются
+    @Override
+    public Batch prepare(Function<TaskType, Map<Integer, ? extends Task>> storage, List<Integer> historyIds,
+                         int nextId, SnapshotCodec codec, boolean full) throws IOException {
+        Map<File, byte[]> writes = new LinkedHashMap<>();
+        Set<File> liveSegments = new HashSet<>();
+
+        for (int segment : dirtySegments) {
+            List<Task> records = new ArrayList<>();
+            long start = (long) segment * segmentSize;
+            for (long id = start; id < start + segmentSize; id++) {
+                for (TaskType type : TaskType.values()) {
+                    Task task = storage.apply(type).get((int) id);
+                    if (task != null) {
+                        records.add(task);
+                        break;
+                    }
+                }
+            }
+
+            File segmentFile = segmentFile(segment);
+            if (records.isEmpty()) {
+                // Пустой сегмент удаляется
+                writes.put(segmentFile, null);
+            } else {
+                writes.put(segmentFile, render(codec, records, List.of(), 0));
+                liveSegments.add(segmentFile);
+            }
+        }
+        dirtySegments.clear();
+
+        if (full || !historyIds.equals(persistedHistory) || nextId != persistedNextId) {
+            writes.put(new File(directory, HISTORY_FILE), render(codec, List.of(), historyIds, nextId));
+            persistedHistory = List.copyOf(historyIds);
+            persistedNextId = nextId;
+        }
+
+        return new SegmentBatch(writes, full ? liveSegments : null);
+    }
+
+    /**
+     * Загрузка всех сегментов. Задачи передаются получателю по возрастанию id:
+     * сначала задачи и эпики, затем подзадачи, чтобы списки подзадач эпиков
+     * восстанавливались детерминированно.
+     */
+    @Override
+    public LoadReport.ChecksumStatus load(SnapshotCodec.Sink sink, CompressionCodec compression)
+            throws IOException {
+        LoadReport.ChecksumStatus status = LoadReport.ChecksumStatus.VERIFIED;
+        List<Task> loaded = new ArrayList<>();
+        SnapshotCodec.Sink collector = new SnapshotCodec.Sink() {
+            @Override
+            public void onTask(Task task) {
+                loaded.add(task);
+            }
+
+            @Override
+            public void onHistory(List<Integer> ids) {
+                // Сегменты задач историю не содержат
+            }
+
+            @Override
+            public void onSkippedRecord(String record) {
+                sink.onSkippedRecord(record);
+            }
+        };
+
+        for (File segmentFile : listSegments().values()) {
+            status = worse(status, readFile(segmentFile, collector, compression));
+        }
+
+        for (Task task : loaded) {
+            if (!(task instanceof Subtask)) {
+                sink.onTask(task);
+            }
+        }
+        for (Task task : loaded) {
+            if (task instanceof Subtask) {
+                sink.onTask(task);
+            }
+        }
+
+        File historyFile = new File(directory, HISTORY_FILE);
+        if (historyFile.exists()) {
+            List<Integer> historyIds = new ArrayList<>();
+            status = worse(status, readFile(historyFile, new SnapshotCodec.Sink() {
+                @Override
+                public void onTask(Task task) {
+                }
+
+                @Override
+                public void onHistory(List<Integer> ids) {
+                    historyIds.addAll(ids);
+                }
+
+                @Override
+                public void onNextId(int nextId) {
+                    persistedNextId = nextId;
+                    sink.onNextId(nextId);
+                }
+            }, compression));
+            persistedHistory = List.copyOf(historyIds);
+            sink.onHistory(historyIds);
+        }
+        return status;
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, String.format("%s%08d", SEGMENT_PREFIX, segment));
+    }
+
+    // Файлы сегментов по возрастанию номера; временные файлы незавершенной записи пропускаются
+    private Map<Integer, File> listSegments() {
+        Map<Integer, File> segments = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return segments;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.startsWith(SEGMENT_PREFIX)) {
+                continue;
+            }
+            try {
+                segments.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length())), file);
+            } catch (NumberFormatException e) {
+                // Посторонний файл или ".tmp"
+            }
+        }
+        return segments;
+    }
+
+    static byte[] render(SnapshotCodec codec, List<Task> records, List<Integer> historyIds, int nextId)
+            throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        codec.write(buffer, records, historyIds, nextId);
+        return buffer.toByteArray();
+    }
+
+    // Чтение файла части с проверкой контрольной суммы в том же проходе
+    static LoadReport.ChecksumStatus readFile(File file, SnapshotCodec.Sink sink, CompressionCodec compression)
+            throws IOException {
+        if (file.length() == 0) {
+            return LoadReport.ChecksumStatus.MISSING;
+        }
+        SnapshotCodec codec = CompressedSnapshotCodec.isCompressed(file)
+                ? CompressedSnapshotCodec.reader(compression, 1)
+                : SnapshotFormat.detect(file).codec();
+        SnapshotChecksum checksum;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            checksum = new SnapshotChecksum(channel.size());
+            InputStream in = checksum.wrap(Channels.newInputStream(channel));
+            codec.read(in, sink);
+            checksum.drain(in);
+        }
+        LoadReport.ChecksumStatus status = checksum.status();
+        if (status == LoadReport.ChecksumStatus.MISMATCH) {
+            throw new IOException("Контрольная сумма части снимка не совпадает, файл поврежден: "
+                    + file.getAbsolutePath());
+        }
+        return status;
+    }
+
+    static LoadReport.ChecksumStatus worse(LoadReport.ChecksumStatus current,
+                                                   LoadReport.ChecksumStatus next) {
+        return next.ordinal() > current.ordinal() ? next : current;
+    }
+
+    /**
+     * Подготовленный сброс: содержимое файлов (null - удалить файл)
+     * и, при полной перезаписи, множество сегментов, которые должны остаться.
+     */
+    private class SegmentBatch implements Batch {
+        private final Map<File, byte[]> writes;
+        private final Set<File> liveSegments;
+
+        private SegmentBatch(Map<File, byte[]> writes, Set<File> liveSegments) {
+            this.writes = writes;
+            this.liveSegments = liveSegments;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return writes.isEmpty() && liveSegments == null;
+        }
+
+        @Override
+        public long write(boolean force) throws IOException {
+            Files.createDirectories(directory.toPath());
+            long written = 0;
+            for (Map.Entry<File, byte[]> entry : writes.entrySet()) {
+                byte[] content = entry.getValue();
+                if (content == null) {
+                    Files.deleteIfExists(entry.getKey().toPath());
+                } else {
+                    written += SnapshotFiles.writeAtomically(entry.getKey(), out -> out.write(content), force);
+                }
+            }
+            if (liveSegments != null) {
+                for (File segmentFile : listSegments().values()) {
+                    if (!liveSegments.contains(segmentFile)) {
+                        Files.deleteIfExists(segmentFile.toPath());
+                    }
+                }
+            }
+            return written;
+        }
+    }
+}
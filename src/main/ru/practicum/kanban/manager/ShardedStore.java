@@ -0,0 +1,221 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Снимок, разбитый по типам задач.
+ * <p>
+ * Каталог "&lt;файл&gt;.shards" содержит файлы task, epic и subtask с задачами
+ * соответствующего типа и файл history. Изменение задачи помечает ее тип как
+ * измененный; при сбросе перезаписываются только измененные файлы, каждый -
+ * атомарно и с контрольной суммой. При загрузке файлы читаются параллельно.
+ */
+class ShardedStore implements PartitionedStore {
+    private static final String HISTORY_FILE = "history";
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private final File directory;
+    // Типы, измененные после последнего сброса
+    private final Set<TaskType> dirtyTypes = EnumSet.noneOf(TaskType.class);
+    // История и следующий id на момент последнего сброса: файл истории
+    // перезаписывается только при их изменении
+    private List<Integer> persistedHistory = List.of();
+    private int persistedNextId;
+
+    ShardedStore(File directory) {
+        this.directory = directory;
+    }
+
+    // Каталог частей располагается рядом с файлом снимка
+    static File directoryFor(File file) {
+        return new File(file.getPath() + ".shards");
+    }
+
+    @Override
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public boolean exists() {
+        return directory.isDirectory();
+    }
+
+    @Override
+    public void markDirty(TaskType type, int id) {
+        dirtyTypes.add(type);
+    }
+
+    @Override
+    public void markDirty(TaskType type, Collection<Integer> ids) {
+        dirtyTypes.add(type);
+    }
+
+    @Override
+    public Batch prepare(Function<TaskType, Map<Integer, ? extends Task>> storage, List<Integer> historyIds,
+                         int nextId, SnapshotCodec codec, boolean full) throws IOException {
+        Map<File, byte[]> writes = new LinkedHashMap<>();
+        for (TaskType type : TYPES) {
+            if (full || dirtyTypes.contains(type)) {
+                List<Task> records = new ArrayList<>(storage.apply(type).values());
+                writes.put(shardFile(type), SegmentedStore.render(codec, records, List.of(), 0));
+            }
+        }
+        dirtyTypes.clear();
+
+        if (full || !historyIds.equals(persistedHistory) || nextId != persistedNextId) {
+            writes.put(new File(directory, HISTORY_FILE),
+                    SegmentedStore.render(codec, List.of(), historyIds, nextId));
+            persistedHistory = List.copyOf(historyIds);
+            persistedNextId = nextId;
+        }
+
+        return new Batch() {
+            @Override
+            public boolean isEmpty() {
+                return writes.isEmpty();
+            }
+
+            @Override
+            public long write(boolean force) throws IOException {
+                Files.createDirectories(directory.toPath());
+                long written = 0;
+                for (Map.Entry<File, byte[]> entry : writes.entrySet()) {
+                    byte[] content = entry.getValue();
+                    written += SnapshotFiles.writeAtomically(entry.getKey(), out -> out.write(content), force);
+                }
+                return written;
+            }
+        };
+    }
+
+    /**
+     * Параллельное чтение файлов всех типов и истории. Задачи передаются получателю
+     * в порядке типов: задачи, эпики, затем подзадачи, чтобы эпики существовали
+     * к моменту восстановления их подзадач.
+     */
+    @Override
+    public LoadReport.ChecksumStatus load(SnapshotCodec.Sink sink, CompressionCodec compression)
+            throws IOException {
+        List<File> files = new ArrayList<>();
+        for (TaskType type : TYPES) {
+            files.add(shardFile(type));
+        }
+        files.add(new File(directory, HISTORY_FILE));
+
+        List<Shard> shards = new ArrayList<>(files.size());
+        ForkJoinPool pool = new ForkJoinPool(files.size());
+        try {
+            List<ForkJoinTask<Shard>> futures = new ArrayList<>(files.size());
+            for (File shardFile : files) {
+                futures.add(pool.submit(() -> readShard(shardFile, compression)));
+            }
+            for (ForkJoinTask<Shard> future : futures) {
+                shards.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Прервана загрузка каталога: " + directory.getAbsolutePath(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException("Ошибка загрузки каталога: " + directory.getAbsolutePath(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        LoadReport.ChecksumStatus status = LoadReport.ChecksumStatus.VERIFIED;
+        List<Integer> historyIds = new ArrayList<>();
+        for (Shard shard : shards) {
+            status = SegmentedStore.worse(status, shard.status);
+            for (Task task : shard.tasks) {
+                if (!(task instanceof Subtask)) {
+                    sink.onTask(task);
+                }
+            }
+            shard.skipped.forEach(sink::onSkippedRecord);
+            historyIds.addAll(shard.historyIds);
+            if (shard.nextId > 0) {
+                persistedNextId = shard.nextId;
+                sink.onNextId(shard.nextId);
+            }
+        }
+        for (Shard shard : shards) {
+            for (Task task : shard.tasks) {
+                if (task instanceof Subtask) {
+                    sink.onTask(task);
+                }
+            }
+        }
+        persistedHistory = List.copyOf(historyIds);
+        sink.onHistory(historyIds);
+        return status;
+    }
+
+    private File shardFile(TaskType type) {
+        return new File(directory, type.name().toLowerCase(Locale.ROOT));
+    }
+
+    // Чтение одного файла в потоке загрузки; отсутствующий файл - пустая часть
+    private static Shard readShard(File shardFile, CompressionCodec compression) {
+        Shard shard = new Shard();
+        if (!shardFile.exists()) {
+            return shard;
+        }
+        try {
+            shard.status = SegmentedStore.readFile(shardFile, shard, compression);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return shard;
+    }
+
+    // Содержимое одного файла
+    private static class Shard implements SnapshotCodec.Sink {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<Integer> historyIds = new ArrayList<>();
+        private final List<String> skipped = new ArrayList<>();
+        private int nextId;
+        private LoadReport.ChecksumStatus status = LoadReport.ChecksumStatus.VERIFIED;
+
+        @Override
+        public void onTask(Task task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public void onHistory(List<Integer> ids) {
+            historyIds.addAll(ids);
+        }
+
+        @Override
+        public void onNextId(int id) {
+            nextId = id;
+        }
+
+        @Override
+        public void onSkippedRecord(String record) {
+            skipped.add(record);
+        }
+    }
+}
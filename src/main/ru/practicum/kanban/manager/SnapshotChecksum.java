@@ -0,0 +1,136 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Проверка контрольной суммы снимка по ходу его разбора.
+ * <p>
+ * Байты файла передаются сюда в порядке следования тем же проходом, который
+ * разбирает записи: все, кроме последних {@link SnapshotFiles#FOOTER_LENGTH},
+ * учитываются в CRC32, а последние сохраняются как строка контрольной суммы
+ * (см. {@link SnapshotFiles}). Поэтому файл снимка читается один раз.
+ */
+final class SnapshotChecksum {
+    private final long dataLength;
+    private final byte[] footer = new byte[SnapshotFiles.FOOTER_LENGTH];
+    private final CRC32 crc = new CRC32();
+    private long position;
+
+    SnapshotChecksum(long fileSize) {
+        this.dataLength = fileSize - SnapshotFiles.FOOTER_LENGTH;
+    }
+
+    void update(byte[] bytes, int offset, int length) {
+        if (position < dataLength) {
+            int data = (int) Math.min(length, dataLength - position);
+            crc.update(bytes, offset, data);
+            position += data;
+            offset += data;
+            length -= data;
+        }
+        if (length > 0) {
+            int footerOffset = (int) (position - Math.max(0, dataLength));
+            int copied = Math.max(0, Math.min(length, footer.length - footerOffset));
+            System.arraycopy(bytes, offset, footer, footerOffset, copied);
+            position += length;
+        }
+    }
+
+    // Учитывает оставшиеся байты буфера, позиция буфера сдвигается до предела
+    void update(ByteBuffer buffer) {
+        if (position < dataLength) {
+            int data = (int) Math.min(buffer.remaining(), dataLength - position);
+            ByteBuffer slice = buffer.slice().limit(data);
+            crc.update(slice);
+            buffer.position(buffer.position() + data);
+            position += data;
+        }
+        if (buffer.hasRemaining()) {
+            byte[] rest = new byte[buffer.remaining()];
+            buffer.get(rest);
+            update(rest, 0, rest.length);
+        }
+    }
+
+    // Поток, учитывающий все прочитанные из него байты
+    InputStream wrap(InputStream in) {
+        return new FilterInputStream(in) {
+            private final byte[] single = new byte[1];
+
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) {
+                    single[0] = (byte) b;
+                    update(single, 0, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = in.read(buffer, offset, length);
+                if (read > 0) {
+                    update(buffer, offset, read);
+                }
+                return read;
+            }
+
+            // Пропущенные байты тоже должны попасть в сумму
+            @Override
+            public long skip(long n) throws IOException {
+                byte[] buffer = new byte[(int) Math.min(n, 8192)];
+                long skipped = 0;
+                while (skipped < n) {
+                    int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                    if (read < 0) {
+                        break;
+                    }
+                    skipped += read;
+                }
+                return skipped;
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            // Разборщик может закрыть поток; файл закрывает вызывающий после drain
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    // Дочитывает поток до конца: разборщик может остановиться перед строкой контрольной суммы
+    void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer, 0, buffer.length) >= 0) {
+            // Байты учитываются обернутым потоком
+        }
+    }
+
+    // Результат проверки; вызывается после того, как учтены все байты файла
+    LoadReport.ChecksumStatus status() {
+        if (dataLength < 0 || position < dataLength + footer.length) {
+            return LoadReport.ChecksumStatus.MISSING;
+        }
+        String text = new String(footer, StandardCharsets.US_ASCII);
+        if (!text.startsWith(SnapshotFiles.FOOTER_PREFIX) || text.charAt(footer.length - 1) != '\n') {
+            return LoadReport.ChecksumStatus.MISSING;
+        }
+        long expected;
+        try {
+            expected = Long.parseLong(text.substring(SnapshotFiles.FOOTER_PREFIX.length(), footer.length - 1), 16);
+        } catch (NumberFormatException e) {
+            return LoadReport.ChecksumStatus.MISMATCH;
+        }
+        return crc.getValue() == expected ? LoadReport.ChecksumStatus.VERIFIED : LoadReport.ChecksumStatus.MISMATCH;
+    }
+}
@@ -0,0 +1,37 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Кодек снимка {@link FileBackedTaskManager}: запись состояния в поток и чтение из него.
+ */
+interface SnapshotCodec {
+
+    // Запись задач (сначала обычные задачи, затем эпики, затем подзадачи), истории
+    // и следующего id менеджера (0 - не сохраняется)
+    void write(OutputStream out, Iterable<? extends Task> records, List<Integer> historyIds, int nextId)
+            throws IOException;
+
+    // Чтение снимка с передачей задач и истории получателю
+    void read(InputStream in, Sink sink) throws IOException;
+
+    // Получатель прочитанных данных
+    interface Sink {
+        void onTask(Task task);
+
+        void onHistory(List<Integer> historyIds);
+
+        // Следующий id менеджера; в снимках прежних версий отсутствует
+        default void onNextId(int nextId) {
+        }
+
+        // Запись, которую не удалось разобрать
+        default void onSkippedRecord(String record) {
+        }
+    }
+}
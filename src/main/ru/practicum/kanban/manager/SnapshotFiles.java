@@ -0,0 +1,103 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Надежная запись файлов снимка.
+ * <p>
+ * Снимок пишется во временный файл рядом с целевым, сбрасывается на диск
+ * и атомарно переименовывается, поэтому сбой посреди записи оставляет на месте
+ * предыдущий снимок. Без сброса (force = false) переименование по-прежнему
+ * защищает от падения процесса, но не от отключения питания. В конец файла дописывается строка "#CRC32:xxxxxxxx\n"
+ * с контрольной суммой всех предшествующих байтов; при загрузке она проверяется
+ * тем же проходом, что разбирает записи (см. {@link SnapshotChecksum}).
+ */
+final class SnapshotFiles {
+    static final String FOOTER_PREFIX = "#CRC32:";
+    static final int FOOTER_LENGTH = FOOTER_PREFIX.length() + 8 + 1;
+
+    // Запись содержимого файла
+    interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private SnapshotFiles() {
+    }
+
+    static long writeAtomically(File target, ContentWriter content) throws IOException {
+        return writeAtomically(target, content, true);
+    }
+
+    // Возвращает количество записанных байтов вместе с контрольной суммой
+    static long writeAtomically(File target, ContentWriter content, boolean force) throws IOException {
+        Path targetPath = target.toPath().toAbsolutePath();
+        Path tempPath = targetPath.resolveSibling(targetPath.getFileName() + ".tmp");
+        long written;
+
+        try (FileOutputStream fileOut = new FileOutputStream(tempPath.toFile())) {
+            CRC32 crc = new CRC32();
+            OutputStream out = new BufferedOutputStream(new CheckedOutputStream(fileOut, crc), 64 * 1024);
+            content.write(out);
+            out.flush();
+            fileOut.write(footer(crc.getValue()));
+            // Данные должны оказаться на диске до переименования
+            if (force) {
+                fileOut.getChannel().force(true);
+            }
+            written = fileOut.getChannel().size();
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+
+        try {
+            Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (force) {
+            syncDirectory(targetPath.getParent());
+        }
+        return written;
+    }
+
+    // Служебные строки CSV (контрольная сумма) начинаются с '#'
+    static boolean isMetadataRecord(CharSequence record) {
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c > ' ') {
+                return c == '#';
+            }
+        }
+        return false;
+    }
+
+    private static byte[] footer(long crc) {
+        return String.format("%s%08x\n", FOOTER_PREFIX, crc).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Сброс каталога, чтобы переименование тоже пережило сбой питания (где это поддерживается)
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Не все файловые системы позволяют открыть каталог; переименование уже выполнено
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Формат файла снимка {@link FileBackedTaskManager}.
+ */
+public enum SnapshotFormat {
+    // Текстовый CSV, совместимый с прежними версиями и удобный для экспорта
+    CSV,
+    // Компактный двоичный формат с версией
+    BINARY;
+
+    SnapshotCodec codec() {
+        return this == BINARY ? new BinarySnapshotCodec() : new CsvSnapshotCodec();
+    }
+
+    // Определение формата существующего файла по сигнатуре
+    static SnapshotFormat detect(File file) throws IOException {
+        byte[] magic = BinarySnapshotCodec.MAGIC;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] header = in.readNBytes(magic.length);
+            return Arrays.equals(header, magic) ? BINARY : CSV;
+        }
+    }
+}
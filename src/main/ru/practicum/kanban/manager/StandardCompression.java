@@ -0,0 +1,100 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Встроенные алгоритмы сжатия на основе java.util.zip.
+ */
+public enum StandardCompression implements CompressionCodec {
+    // Блок - самостоятельный GZIP-поток, распаковывается стандартными утилитами
+    GZIP(1) {
+        @Override
+        public byte[] compress(byte[] data, int offset, int length) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer, 8 * 1024)) {
+                out.write(data, offset, length);
+            }
+            return buffer.toByteArray();
+        }
+
+        @Override
+        public void decompress(byte[] data, int offset, int length, byte[] target) throws IOException {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data, offset, length), 8 * 1024)) {
+                if (in.readNBytes(target, 0, target.length) != target.length) {
+                    throw new IOException("Блок снимка короче заявленного размера");
+                }
+            }
+        }
+    },
+    // Deflate без заголовков GZIP: чуть компактнее на маленьких блоках
+    DEFLATE(2) {
+        @Override
+        public byte[] compress(byte[] data, int offset, int length) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(data, offset, length);
+                deflater.finish();
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(length / 4 + 64);
+                byte[] chunk = new byte[8 * 1024];
+                while (!deflater.finished()) {
+                    buffer.write(chunk, 0, deflater.deflate(chunk));
+                }
+                return buffer.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public void decompress(byte[] data, int offset, int length, byte[] target) throws IOException {
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(data, offset, length);
+                int filled = 0;
+                while (filled < target.length && !inflater.finished()) {
+                    int inflated = inflater.inflate(target, filled, target.length - filled);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    filled += inflated;
+                }
+                if (filled != target.length) {
+                    throw new IOException("Блок снимка короче заявленного размера");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Блок снимка поврежден", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    private final int id;
+
+    StandardCompression(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    // Встроенный алгоритм по коду из заголовка или null
+    static StandardCompression byId(int id) {
+        for (StandardCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,265 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Потокобезопасный менеджер задач с блокировками по полосам идентификаторов.
+ * <p>
+ * Хранилища - ConcurrentHashMap, а вместо общей блокировки используется массив
+ * блокировок (полос): задача с id защищена полосой id % stripes. Операция над
+ * задачей или эпиком захватывает только его полосу, операция над подзадачей - полосу
+ * ее эпика, поэтому список подзадач и статус эпика (updateEpicStatus) изменяются
+ * под блокировкой эпика, а изменения задач и подзадач разных эпиков не пересекаются.
+ * <p>
+ * Массовые операции (deleteAll*, импорт, экспорт) захватывают все полосы по порядку.
+ * Идентификаторы выдаются без блокировок (см. {@link IdAllocator}), а созданная задача
+ * или эпик добавляется в хранилище и индекс под полосой своего id: иначе deleteAll*
+ * мог бы удалить запись из хранилища между двумя вставками и оставить ее в индексе.
+ * getAllTasks и getAllSubtasks обходят хранилище без
+ * блокировок: хранимые задачи и подзадачи не изменяются, а заменяются копиями.
+ */
+public class StripedTaskManager extends InMemoryTaskManager {
+    private final ReentrantLock[] stripes;
+
+    public StripedTaskManager() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // Количество полос округляется вверх до степени двойки
+    public StripedTaskManager(int stripeCount) {
+        super(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+        if (stripeCount < 1 || stripeCount > 1 << 16) {
+            throw new IllegalArgumentException("Количество полос блокировок должно быть от 1 до 65536");
+        }
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[Math.max(1, size)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    protected void storeCreated(Task task) {
+        locked(task.getId(), () -> super.storeCreated(task));
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return locked(id, () -> super.getTask(id));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не может быть пустой");
+        }
+        locked(task.getId(), () -> super.updateTask(task));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        locked(id, () -> super.deleteTask(id));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        lockedAll(super::deleteAllTasks);
+    }
+
+    // Эпики изменяются на месте, поэтому каждый копируется под своей полосой
+    @Override
+    public List<Epic> getAllEpics() {
+        List<Epic> epicCopies = new ArrayList<>();
+        for (Epic epic : epics.values()) {
+            Epic copy = locked(epic.getId(), () -> new Epic(epic));
+            epicCopies.add(copy);
+        }
+        return epicCopies;
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return locked(id, () -> super.getEpic(id));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (epic == null) {
+            throw new IllegalArgumentException("Эпик не может быть пустым");
+        }
+        locked(epic.getId(), () -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        locked(id, () -> super.deleteEpic(id));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockedAll(super::deleteAllEpics);
+    }
+
+    @Override
+    public void createSubtask(String name, String description, int epicId) {
+        locked(epicId, () -> super.createSubtask(name, description, epicId));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return lockedSubtask(id, -1, () -> super.getSubtask(id));
+    }
+
+    // Подзадача может перейти в другой эпик: блокируются оба
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        if (subtask == null) {
+            throw new IllegalArgumentException("Подзадача не может быть пустой");
+        }
+        lockedSubtask(subtask.getId(), subtask.getEpicId(), () -> {
+            super.updateSubtask(subtask);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        lockedSubtask(id, -1, () -> {
+            super.deleteSubtask(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        lockedAll(super::deleteAllSubtasks);
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        return locked(epicId, () -> super.getEpicSubtasks(epicId));
+    }
+
+    // Тип записи по id не меняется, поэтому полоса выбирается по найденной записи
+    @Override
+    public Task getAny(int id) {
+        if (index.get(id) instanceof Subtask) {
+            return lockedSubtask(id, -1, () -> super.getAny(id));
+        }
+        return locked(id, () -> super.getAny(id));
+    }
+
+    @Override
+    public List<Integer> importTasks(Stream<? extends Task> items) {
+        List<List<Integer>> result = new ArrayList<>(1);
+        lockedAll(() -> result.add(super.importTasks(items)));
+        return result.get(0);
+    }
+
+    @Override
+    public List<Integer> importSubtasks(int epicId, Stream<? extends Subtask> subtasks) {
+        List<List<Integer>> result = new ArrayList<>(1);
+        lockedAll(() -> result.add(super.importSubtasks(epicId, subtasks)));
+        return result.get(0);
+    }
+
+    // Экспорт видит согласованное состояние: все полосы заняты до конца записи
+    @Override
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        lockAll();
+        try {
+            super.export(format, out);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private ReentrantLock stripe(int id) {
+        return stripes[id & (stripes.length - 1)];
+    }
+
+    private <T> T locked(int id, Supplier<T> action) {
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void locked(int id, Runnable action) {
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Операция над подзадачей под полосой ее текущего эпика и, если otherEpicId не -1,
+     * полосой эпика otherEpicId. Полосы захватываются по возрастанию номера; если за время
+     * ожидания подзадача перешла в другой эпик, захват повторяется. Для отсутствующей
+     * подзадачи операция не выполняется и возвращается null.
+     */
+    private <T> T lockedSubtask(int id, int otherEpicId, Supplier<T> action) {
+        while (true) {
+            Subtask saved = subtasks.get(id);
+            if (saved == null) {
+                return null;
+            }
+            int epicId = saved.getEpicId();
+            int mask = stripes.length - 1;
+            int own = epicId & mask;
+            int other = otherEpicId < 0 ? own : otherEpicId & mask;
+            ReentrantLock first = stripes[Math.min(own, other)];
+            ReentrantLock second = stripes[Math.max(own, other)];
+            first.lock();
+            second.lock();
+            try {
+                Subtask current = subtasks.get(id);
+                if (current == null || current.getEpicId() == epicId) {
+                    return current == null ? null : action.get();
+                }
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+        }
+    }
+
+    private void lockedAll(Runnable action) {
+        lockAll();
+        try {
+            action.run();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+}
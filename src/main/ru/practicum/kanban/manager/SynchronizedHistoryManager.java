@@ -0,0 +1,33 @@
+package main.ru.practicum.kanban.manager;
+
+import main.ru.practicum.kanban.model.Task;
+
+import java.util.List;
+
+/**
+ * Потокобезопасная обертка истории просмотров: все операции выполняются
+ * под монитором обертки. Используется {@link ConcurrentTaskManager}, где просмотры
+ * идут под блокировкой чтения хранилища и могут выполняться одновременно.
+ */
+class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+}
@@ -0,0 +1,218 @@
+package main.ru.practicum.kanban.manager;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Журнал изменений (write-ahead log) для {@link FileBackedTaskManager}.
+ * Каждая запись - одна строка в формате CSV; поля в кавычках могут содержать
+ * переводы строк, поэтому журнал читается через {@link CsvRecordReader}.
+ * <p>
+ * Запись всегда идет в активный файл; при ротации он переименовывается
+ * в закрытый сегмент "&lt;журнал&gt;.NNNNNN", который затем сворачивается в снимок.
+ * Восстановление читает закрытые сегменты по возрастанию номера, затем активный файл.
+ * <p>
+ * Запись начинается с номера изменения и времени в миллисекундах: "SSS,TTT,операция,...";
+ * записи прежнего формата без номера начинаются прямо с операции. С архивом
+ * ({@link RecoveryArchive}) файлы журнала после свертки в снимок не удаляются, а переносятся в архив.
+ */
+class TaskJournal {
+    private final File file;
+    // Архив для восстановления на момент времени или null
+    private final RecoveryArchive archive;
+    // Могут ли на диске быть закрытые сегменты (сначала неизвестно)
+    private boolean mayHaveSegments = true;
+
+    TaskJournal(File file, RecoveryArchive archive) {
+        this.file = file;
+        this.archive = archive;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    // Дописывает записи в конец журнала (force - со сбросом на диск),
+    // возвращает количество записанных байтов
+    long append(List<String> records, boolean force) throws IOException {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            long sizeBefore = out.getChannel().position();
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (String record : records) {
+                writer.write(record);
+                writer.write('\n');
+            }
+            writer.flush();
+            if (force) {
+                out.getChannel().force(false);
+            }
+            return out.getChannel().position() - sizeBefore;
+        }
+    }
+
+    // Последовательно передает все записи журнала обработчику, возвращает их количество
+    int replay(Consumer<String> handler) throws IOException {
+        int recordCount = 0;
+        for (File segment : sealedSegments()) {
+            recordCount += replay(segment, handler);
+        }
+        return recordCount + replay(file, handler);
+    }
+
+    // Чтение одного файла журнала
+    static int replay(File file, Consumer<String> handler) throws IOException {
+        int[] recordCount = new int[1];
+        replayWhile(file, record -> {
+            handler.accept(record);
+            recordCount[0]++;
+            return true;
+        });
+        return recordCount[0];
+    }
+
+    // Чтение файла журнала, пока обработчик возвращает true; false - если чтение остановлено
+    static boolean replayWhile(File file, Predicate<String> handler) throws IOException {
+        if (!file.exists()) {
+            return true;
+        }
+        try (CsvRecordReader reader = new CsvRecordReader(
+                new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            // Незавершенная последняя запись (обрыв при записи) отбрасывается читателем
+            String record;
+            while ((record = reader.nextRecord()) != null) {
+                if (!record.isEmpty() && !handler.test(record)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Номер изменения записи или -1 для записи прежнего формата
+    static long sequenceOf(String record) {
+        int end = record.indexOf(',');
+        if (end <= 0 || !Character.isDigit(record.charAt(0))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(record, 0, end, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Время изменения записи в миллисекундах или -1 для записи прежнего формата
+    static long timeOf(String record) {
+        if (sequenceOf(record) < 0) {
+            return -1;
+        }
+        int start = record.indexOf(',') + 1;
+        int end = record.indexOf(',', start);
+        if (end < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(record, start, end, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Номер первой записи файла или -1, если номеров в нем нет
+    static long firstSequence(File file) throws IOException {
+        long[] first = {-1};
+        replayWhile(file, record -> {
+            first[0] = sequenceOf(record);
+            return false;
+        });
+        return first[0];
+    }
+
+    // Номер последней записи файла или -1
+    static long lastSequence(File file) throws IOException {
+        long[] last = {-1};
+        replayWhile(file, record -> {
+            last[0] = Math.max(last[0], sequenceOf(record));
+            return true;
+        });
+        return last[0];
+    }
+
+    /**
+     * Закрывает активный файл: он становится сегментом со следующим номером,
+     * новые записи пойдут в новый активный файл. Возвращает сегмент или null,
+     * если активный файл пуст.
+     */
+    File rotate() throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return null;
+        }
+        TreeMap<Integer, File> segments = listSegments();
+        int next = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        File segment = new File(String.format("%s.%06d", file.getPath(), next));
+        Files.move(file.toPath(), segment.toPath());
+        mayHaveSegments = true;
+        return segment;
+    }
+
+    // Закрытые сегменты по возрастанию номера
+    List<File> sealedSegments() {
+        return new ArrayList<>(listSegments().values());
+    }
+
+    // Очищает журнал (активный файл и закрытые сегменты) после записи полного снимка
+    void truncate() throws IOException {
+        if (mayHaveSegments) {
+            retire(sealedSegments());
+            mayHaveSegments = false;
+        }
+        retire(List.of(file));
+    }
+
+    // Удаление файлов журнала, вошедших в снимок, или перенос их в архив
+    void retire(List<File> files) throws IOException {
+        for (File journalFile : files) {
+            if (archive != null && journalFile.exists()) {
+                archive.addJournal(journalFile);
+            } else {
+                Files.deleteIfExists(journalFile.toPath());
+            }
+        }
+    }
+
+    private TreeMap<Integer, File> listSegments() {
+        TreeMap<Integer, File> segments = new TreeMap<>();
+        File directory = file.getAbsoluteFile().getParentFile();
+        String prefix = file.getName() + ".";
+        File[] files = directory == null ? null : directory.listFiles();
+        if (files == null) {
+            return segments;
+        }
+        for (File candidate : files) {
+            String name = candidate.getName();
+            if (!name.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                segments.put(Integer.parseInt(name.substring(prefix.length())), candidate);
+            } catch (NumberFormatException e) {
+                // Посторонний файл
+            }
+        }
+        return segments;
+    }
+}
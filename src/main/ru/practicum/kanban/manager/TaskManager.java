@@ -4,7 +4,12 @@ import main.ru.practicum.kanban.model.Epic;
 import main.ru.practicum.kanban.model.Subtask;
 import main.ru.practicum.kanban.model.Task;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TaskManager {
 
@@ -50,6 +55,47 @@ public interface TaskManager {
     // Получение подзадач эпика
     List<Subtask> getEpicSubtasks(int epicId);
 
+    /**
+     * Задача, эпик или подзадача по id, когда тип заранее неизвестен.
+     * Возвращается копия соответствующего класса, просмотр попадает в историю;
+     * для отсутствующего id - null.
+     */
+    Task getAny(int id);
+
     // История просмотров задач
     List<Task> getHistory();
+
+    /**
+     * Массовый импорт задач, эпиков и подзадач с сохранением их названий, описаний и статусов.
+     * Идентификаторы элементов считаются идентификаторами источника: менеджер назначает новые.
+     * Подзадача ссылается на эпик, импортированный раньше в том же потоке (по id источника);
+     * id эпиков источника не должны повторяться. Подзадачи существующего эпика импортируются
+     * через {@link #importSubtasks}. Статусы эпиков пересчитываются один раз в конце.
+     * При ошибке в любом элементе ничего не импортируется.
+     *
+     * @return новые идентификаторы в порядке элементов потока
+     */
+    List<Integer> importTasks(Stream<? extends Task> items);
+
+    /**
+     * Массовый импорт подзадач в существующий эпик epicId. Эпики, указанные в самих
+     * подзадачах, не учитываются. В остальном - как {@link #importTasks}.
+     *
+     * @return новые идентификаторы в порядке элементов потока
+     */
+    List<Integer> importSubtasks(int epicId, Stream<? extends Subtask> subtasks);
+
+    /**
+     * Потоковый экспорт задач, эпиков и подзадач прямо из хранилища, без копирования
+     * объектов: дополнительная память не зависит от размера доски. Поток не закрывается.
+     * Экспорт видит согласованное состояние, если доска не изменяется во время записи.
+     */
+    void export(ExportFormat format, OutputStream out) throws IOException;
+
+    default void export(ExportFormat format, WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Канал экспорта не может быть пустым");
+        }
+        export(format, Channels.newOutputStream(channel));
+    }
 }
@@ -0,0 +1,66 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Массовый импорт: время importTasks для потока эпиков с подзадачами и обычных задач,
+ * включая единственную запись снимка, и время последующей загрузки.
+ * <p>
+ * Запуск: java -Xmx2g -cp &lt;классы&gt; benchmark.BulkImportBenchmark [количество элементов]
+ */
+public class BulkImportBenchmark {
+    private static final int DEFAULT_ITEMS = 1_000_000;
+    // Каждый 50-й элемент - эпик, за ним идут его подзадачи
+    private static final int EPIC_EVERY = 50;
+
+    public static void main(String[] args) throws IOException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITEMS;
+        File file = Files.createTempFile("kanban_import", ".csv").toFile();
+        try {
+            FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceSettings.defaults());
+            long start = System.nanoTime();
+            List<Integer> ids = manager.importTasks(source(items));
+            long importMillis = (System.nanoTime() - start) / 1_000_000;
+            manager.close();
+            System.out.printf("import items=%d time=%d ms flushes=%d file=%d bytes%n",
+                    ids.size(), importMillis, manager.getMetrics().getFlushCount(), file.length());
+
+            start = System.nanoTime();
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+            System.out.printf("load   items=%d time=%d ms%n",
+                    loaded.getAllTasks().size() + loaded.getAllEpics().size() + loaded.getAllSubtasks().size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            file.delete();
+        }
+    }
+
+    // Элементы с идентификаторами источника
+    private static Stream<Task> source(int items) {
+        return IntStream.range(0, items).mapToObj(i -> {
+            Task item;
+            if (i % EPIC_EVERY == 0) {
+                item = new Epic("Эпик " + i, "Описание эпика");
+            } else if (i % EPIC_EVERY < EPIC_EVERY / 2) {
+                item = new Subtask("Подзадача " + i, "Описание подзадачи", i - i % EPIC_EVERY);
+                item.setStatus(i % 3 == 0 ? TaskStatus.DONE : TaskStatus.IN_PROGRESS);
+            } else {
+                item = new Task("Задача " + i, "Описание задачи");
+            }
+            item.setId(i);
+            return item;
+        });
+    }
+}
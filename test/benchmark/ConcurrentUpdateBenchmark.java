@@ -0,0 +1,107 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.ConcurrentTaskManager;
+import main.ru.practicum.kanban.manager.StripedTaskManager;
+import main.ru.practicum.kanban.manager.TaskManager;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Масштабирование updateSubtask по потокам: каждый поток обновляет подзадачи своих эпиков.
+ * Сравниваются общая блокировка чтения-записи (ConcurrentTaskManager) и полосы
+ * блокировок по id (StripedTaskManager). Печатает пропускную способность и ускорение
+ * относительно одного потока.
+ * <p>
+ * Запуск: java -cp &lt;классы&gt; benchmark.ConcurrentUpdateBenchmark [максимум потоков]
+ */
+public class ConcurrentUpdateBenchmark {
+    private static final int EPICS_PER_THREAD = 16;
+    private static final int SUBTASKS_PER_EPIC = 8;
+    private static final long DURATION_MILLIS = 2_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("available processors: %d%n", Runtime.getRuntime().availableProcessors());
+        report("ConcurrentTaskManager", ConcurrentTaskManager::new, maxThreads);
+        report("StripedTaskManager", StripedTaskManager::new, maxThreads);
+    }
+
+    private static void report(String name, Supplier<TaskManager> factory, int maxThreads)
+            throws InterruptedException {
+        // Прогрев
+        run(factory.get(), maxThreads);
+        double single = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double opsPerSecond = run(factory.get(), threads);
+            if (threads == 1) {
+                single = opsPerSecond;
+            }
+            System.out.printf("%-22s threads=%-3d %,12.0f updates/s  speedup=%.2f%n",
+                    name, threads, opsPerSecond, opsPerSecond / single);
+        }
+    }
+
+    private static double run(TaskManager manager, int threads) throws InterruptedException {
+        // Эпики и подзадачи каждого потока
+        List<List<Subtask>> owned = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            List<Subtask> subtasks = new ArrayList<>();
+            for (int e = 0; e < EPICS_PER_THREAD; e++) {
+                int epicId = manager.createEpic("Эпик " + thread + "-" + e, "Описание");
+                for (int s = 0; s < SUBTASKS_PER_EPIC; s++) {
+                    manager.createSubtask("Подзадача " + s, "Описание", epicId);
+                }
+                subtasks.addAll(manager.getEpicSubtasks(epicId));
+            }
+            owned.add(subtasks);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        long[] counts = new long[threads];
+        List<Thread> workers = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        for (int thread = 0; thread < threads; thread++) {
+            int index = thread;
+            Thread worker = new Thread(() -> {
+                List<Subtask> subtasks = owned.get(index);
+                TaskStatus[] statuses = TaskStatus.values();
+                long count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 1024; i++) {
+                        Subtask subtask = subtasks.get((int) (count % subtasks.size()));
+                        subtask.setStatus(statuses[(int) (count % statuses.length)]);
+                        manager.updateSubtask(subtask);
+                        count++;
+                    }
+                }
+                counts[index] = count;
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.ExportFormat;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Task;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Сравнение записи CSV-снимка: прежний способ (String.format и escapeCsv на каждую строку)
+ * и потоковый кодировщик, используемый FileBackedTaskManager, а также потоковый экспорт
+ * в CSV и JSON Lines прямо из хранилища.
+ * Печатает время и объем выделенной памяти на строку.
+ * <p>
+ * Запуск: java -cp &lt;классы&gt; benchmark.CsvEncoderBenchmark [количество строк]
+ */
+public class CsvEncoderBenchmark {
+    private static final int DEFAULT_ROWS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        File file = Files.createTempFile("kanban_bench", ".csv").toFile();
+        File export = Files.createTempFile("kanban_bench_export", ".csv").toFile();
+        try {
+            // Запись на диск откладывается до конца заполнения
+            FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                    PersistenceSettings.defaults().withCoalescing(Integer.MAX_VALUE, 0));
+            for (int i = 0; i < rows; i++) {
+                manager.createTask("Задача " + i, i % 10 == 0 ? "Описание, с запятой" : "Описание задачи");
+            }
+            List<Task> tasks = manager.getAllTasks();
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                writeWithFormat(tasks);
+                manager.exportCsv(export);
+                manager.export(ExportFormat.JSON_LINES, OutputStream.nullOutputStream());
+            }
+
+            report("String.format", rows, () -> writeWithFormat(tasks));
+            report("CsvRowEncoder", rows, () -> manager.exportCsv(export));
+            report("export CSV", rows, () -> manager.export(ExportFormat.CSV, OutputStream.nullOutputStream()));
+            report("export JSONL", rows,
+                    () -> manager.export(ExportFormat.JSON_LINES, OutputStream.nullOutputStream()));
+        } finally {
+            file.delete();
+            export.delete();
+        }
+    }
+
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    private static void report(String name, int rows, Action action) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        action.run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-14s rows=%d time=%d ms allocated=%d bytes (%.1f bytes/row)%n",
+                name, rows, elapsedMillis, allocated, (double) allocated / rows);
+    }
+
+    // Прежняя реализация записи снимка
+    private static void writeWithFormat(List<Task> tasks) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(),
+                StandardCharsets.UTF_8));
+        writer.write("id,type,name,status,description,epic\n");
+        for (Task task : tasks) {
+            String row = String.format("%d,%s,%s,%s,%s,%s",
+                    task.getId(), "TASK", escapeCsv(task.getName()), task.getStatus().name(),
+                    escapeCsv(task.getDescription()), "");
+            writer.write(row + "\n");
+        }
+        writer.write("\n\n");
+        writer.flush();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+
+/**
+ * Загрузка CSV-снимка: время и объем выделенной памяти на строку.
+ * В объем входят сами задачи, их названия и описания и узлы HashMap;
+ * разбор строки дополнительной памяти не требует.
+ * <p>
+ * Запуск: java -cp &lt;классы&gt; benchmark.CsvLoadBenchmark [количество строк]
+ */
+public class CsvLoadBenchmark {
+    private static final int DEFAULT_ROWS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        File file = Files.createTempFile("kanban_bench", ".csv").toFile();
+        try {
+            FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                    PersistenceSettings.defaults().withCoalescing(Integer.MAX_VALUE, 0));
+            int epicId = 0;
+            for (int i = 0; i < rows; i++) {
+                if (i % 100 == 0) {
+                    epicId = manager.createEpic("Эпик " + i, "Описание эпика");
+                } else if (i % 2 == 0) {
+                    manager.createTask("Задача " + i, "Описание, с запятой");
+                } else {
+                    manager.createSubtask("Подзадача " + i, "Описание подзадачи", epicId);
+                }
+            }
+            manager.close();
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                FileBackedTaskManager.loadFromFile(file);
+            }
+
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().threadId();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            System.out.printf("loadFromFile rows=%d time=%d ms allocated=%d bytes (%.1f bytes/row)%n",
+                    loaded.getAllTasks().size() + loaded.getAllEpics().size() + loaded.getAllSubtasks().size(), elapsedMillis,
+                    allocated, (double) allocated / rows);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.Durability;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Пропускная способность изменений при разных уровнях сохранности.
+ * Для каждого режима хранения и уровня печатает количество изменений в секунду
+ *, включая финальный close().
+ * <p>
+ * Запуск: java -cp &lt;классы&gt; benchmark.DurabilityBenchmark [количество изменений]
+ */
+public class DurabilityBenchmark {
+    private static final int DEFAULT_MUTATIONS = 2_000;
+    // Размер пакета для FLUSH и FSYNC_PER_BATCH
+    private static final int BATCH_SIZE = 100;
+
+    public static void main(String[] args) throws IOException {
+        int mutations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MUTATIONS;
+        Path directory = Files.createTempDirectory("kanban_durability");
+        try {
+            for (PersistenceMode mode : new PersistenceMode[] {PersistenceMode.SNAPSHOT, PersistenceMode.JOURNAL}) {
+                // Прогрев
+                run(directory, mode, Durability.NONE, mutations);
+                for (Durability durability : Durability.values()) {
+                    long elapsedNanos = run(directory, mode, durability, mutations);
+                    System.out.printf("%-8s %-15s mutations=%d time=%d ms throughput=%.0f ops/s%n",
+                            mode, durability, mutations, elapsedNanos / 1_000_000,
+                            mutations * 1_000_000_000.0 / elapsedNanos);
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private static long run(Path directory, PersistenceMode mode, Durability durability, int mutations) {
+        File file = directory.resolve(mode + "-" + durability + ".csv").toFile();
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withMode(mode)
+                .withCoalescing(BATCH_SIZE, 0)
+                .withDurability(durability);
+
+        long start = System.nanoTime();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        for (int i = 0; i < mutations; i++) {
+            manager.createTask("Задача " + i, "Описание задачи");
+        }
+        manager.close();
+        return System.nanoTime() - start;
+    }
+}
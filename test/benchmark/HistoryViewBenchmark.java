@@ -0,0 +1,60 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.Durability;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Стоимость просмотра задачи с записью в журнал просмотров:
+ * среднее время getTask при разных уровнях сохранности.
+ * <p>
+ * Запуск: java -cp &lt;классы&gt; benchmark.HistoryViewBenchmark [количество просмотров]
+ */
+public class HistoryViewBenchmark {
+    private static final int DEFAULT_VIEWS = 200_000;
+    private static final int TASKS = 1_000;
+
+    public static void main(String[] args) throws IOException {
+        int views = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_VIEWS;
+        Path directory = Files.createTempDirectory("kanban_views");
+        try {
+            for (Durability durability : new Durability[] {Durability.NONE, Durability.FSYNC_PER_BATCH}) {
+                // Прогрев
+                run(directory, durability, views);
+                long elapsedNanos = run(directory, durability, views);
+                System.out.printf("%-15s views=%d time=%d ms (%.2f us/view)%n",
+                        durability, views, elapsedNanos / 1_000_000, elapsedNanos / 1_000.0 / views);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private static long run(Path directory, Durability durability, int views) {
+        File file = directory.resolve(durability + ".csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceSettings.defaults()
+                .withCoalescing(Integer.MAX_VALUE, 0)
+                .withDurability(durability));
+        for (int i = 0; i < TASKS; i++) {
+            manager.createTask("Задача " + i, "Описание задачи");
+        }
+        manager.flush();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < views; i++) {
+            manager.getTask(1 + i % TASKS);
+        }
+        long elapsed = System.nanoTime() - start;
+        manager.close();
+        return elapsed;
+    }
+}
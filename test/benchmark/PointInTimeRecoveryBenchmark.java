@@ -0,0 +1,72 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.Durability;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.RecoveryPoint;
+import main.ru.practicum.kanban.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Восстановление на момент времени: время загрузки доски на несколько точек истории.
+ * Время зависит от расстояния до ближайшего снимка архива, а не от длины всей истории.
+ * <p>
+ * Запуск: java -cp &lt;классы&gt; benchmark.PointInTimeRecoveryBenchmark [количество изменений]
+ */
+public class PointInTimeRecoveryBenchmark {
+    private static final int DEFAULT_MUTATIONS = 200_000;
+    private static final int TASKS = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        int mutations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MUTATIONS;
+        Path directory = Files.createTempDirectory("kanban_pitr");
+        File file = directory.resolve("tasks.csv").toFile();
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withCoalescing(1_000, 0)
+                .withDurability(Durability.FLUSH)
+                .withRecoveryArchive(TimeUnit.DAYS.toMillis(1));
+        try {
+            long start = System.nanoTime();
+            try (FileBackedTaskManager manager = new FileBackedTaskManager(file, settings)) {
+                for (int i = 0; i < TASKS; i++) {
+                    manager.createTask("Задача " + i, "Описание задачи");
+                }
+                for (int i = TASKS; i < mutations; i++) {
+                    Task task = manager.getTask(1 + i % TASKS);
+                    task.setName("Задача " + i);
+                    manager.updateTask(task);
+                }
+            }
+            System.out.printf("write       mutations=%d time=%d ms%n", mutations, (System.nanoTime() - start) / 1_000_000);
+
+            for (long sequence : new long[] {TASKS, mutations / 2, mutations - 1}) {
+                // Прогрев
+                recover(file, settings, sequence);
+                start = System.nanoTime();
+                int tasks = recover(file, settings, sequence);
+                System.out.printf("recover     seq=%d tasks=%d time=%d ms%n",
+                        sequence, tasks, (System.nanoTime() - start) / 1_000_000);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private static int recover(File file, PersistenceSettings settings, long sequence) {
+        try (FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, settings,
+                RecoveryPoint.atSequence(sequence))) {
+            return manager.getAllTasks().size();
+        }
+    }
+}
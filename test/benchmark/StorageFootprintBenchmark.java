@@ -0,0 +1,106 @@
+package benchmark;
+
+import main.ru.practicum.kanban.manager.InMemoryTaskManager;
+import main.ru.practicum.kanban.model.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Память хранилища задач и время поиска по id. Накладные расходы индексов менеджера
+ * (хранилище задач и общий индекс) сравниваются с двумя HashMap&lt;Integer, Task&gt;
+ * с теми же задачами; из обоих вычитается память самих задач. Поиск измеряется
+ * через getEpicSubtasks (эпик и его подзадача), который не изменяет историю.
+ * <p>
+ * Запуск: java -Xmx4g -cp &lt;классы&gt; benchmark.StorageFootprintBenchmark [количество задач]
+ */
+public class StorageFootprintBenchmark {
+    private static final int DEFAULT_TASKS = 2_000_000;
+    private static final int LOOKUPS = 5_000_000;
+
+    // Измеряемая структура держится в поле, чтобы JIT не счел ее недостижимой
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASKS;
+        long payloadBytes = payloadBytes(count);
+        long hashMapBytes = hashMapBytes(count) - payloadBytes;
+        long managerBytes = managerBytes(count) - payloadBytes;
+
+        System.out.printf("tasks=%,d  payload %.1f bytes/task%n", count, payloadBytes / (double) count);
+        System.out.printf("2 x HashMap<Integer, Task>  overhead %.1f bytes/task%n", hashMapBytes / (double) count);
+        System.out.printf("InMemoryTaskManager         overhead %.1f bytes/task%n", managerBytes / (double) count);
+
+        // Эпики с одной подзадачей: id эпиков нечетные
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        int epics = count / 2;
+        for (int i = 0; i < epics; i++) {
+            int epicId = manager.createEpic("Эпик", "Описание");
+            manager.createSubtask("Подзадача", "Описание", epicId);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 3; round++) {
+            long found = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                found += manager.getEpicSubtasks(2 * random.nextInt(epics) + 1).size();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("getEpicSubtasks round %d: %.1f ns/op (found %,d)%n",
+                    round, elapsed / (double) LOOKUPS, found);
+        }
+    }
+
+    // Каждое измерение - в отдельном методе: локальные переменные не переживают его
+    private static long payloadBytes(int count) {
+        long before = usedHeap();
+        retained = tasks(count);
+        long bytes = usedHeap() - before;
+        retained = null;
+        return bytes;
+    }
+
+    private static long hashMapBytes(int count) {
+        long before = usedHeap();
+        Map<Integer, Task> primary = new HashMap<>();
+        Map<Integer, Task> index = new HashMap<>();
+        for (Task task : tasks(count)) {
+            primary.put(task.getId(), task);
+            index.put(task.getId(), task);
+        }
+        retained = new Object[] {primary, index};
+        long bytes = usedHeap() - before;
+        retained = null;
+        return bytes;
+    }
+
+    private static long managerBytes(int count) {
+        long before = usedHeap();
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < count; i++) {
+            manager.createTask("Задача", "Описание");
+        }
+        retained = manager;
+        long bytes = usedHeap() - before;
+        retained = null;
+        return bytes;
+    }
+
+    private static Task[] tasks(int count) {
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task("Задача", "Описание");
+            tasks[i].setId(i + 1);
+        }
+        return tasks;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,163 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.InMemoryTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.TaskManager;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты массового импорта задач.
+ */
+public class BulkImportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void importShouldAssignIdsAndLinkSubtasksBySourceId() {
+        TaskManager manager = new InMemoryTaskManager();
+        int existingId = manager.createTask("Существующая", "Описание");
+
+        List<Integer> ids = manager.importTasks(Stream.of(
+                task(100, "Задача", TaskStatus.IN_PROGRESS),
+                epic(200, "Эпик"),
+                subtask(300, "Подзадача 1", TaskStatus.DONE, 200),
+                subtask(301, "Подзадача 2", TaskStatus.IN_PROGRESS, 200)));
+
+        assertEquals(4, ids.size());
+        assertFalse(ids.contains(existingId));
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getTask(ids.get(0)).getStatus());
+        Epic epic = manager.getEpic(ids.get(1));
+        assertEquals(List.of(ids.get(2), ids.get(3)), epic.getSubtaskIds());
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "Статус эпика пересчитывается по подзадачам");
+        assertEquals(ids.get(1), manager.getSubtask(ids.get(2)).getEpicId());
+
+        int nextId = manager.createTask("После импорта", "Описание");
+        assertEquals(ids.get(3) + 1, nextId, "Остаток блока идентификаторов должен возвращаться");
+    }
+
+    @Test
+    void subtasksShouldBeImportedIntoExistingEpicExplicitly() {
+        TaskManager manager = new InMemoryTaskManager();
+        int epicId = manager.createEpic("Эпик", "Описание");
+
+        List<Integer> ids = manager.importSubtasks(epicId, Stream.of(subtask(50, "Подзадача", TaskStatus.DONE, 7)));
+
+        assertEquals(epicId, manager.getSubtask(ids.get(0)).getEpicId(), "Эпик источника не учитывается");
+        assertEquals(TaskStatus.DONE, manager.getEpic(epicId).getStatus());
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.importSubtasks(999, Stream.of(subtask(51, "Подзадача", TaskStatus.NEW, 999))));
+    }
+
+    @Test
+    void sourceEpicIdShouldNotResolveToExistingEpic() {
+        TaskManager manager = new InMemoryTaskManager();
+        int epicId = manager.createEpic("Существующий", "Описание");
+
+        // Эпик источника с тем же id идет после подзадачи
+        assertThrows(IllegalArgumentException.class, () -> manager.importTasks(Stream.of(
+                subtask(2, "Подзадача", TaskStatus.DONE, epicId),
+                epic(epicId, "Эпик"))));
+
+        assertTrue(manager.getEpic(epicId).getSubtaskIds().isEmpty(), "Существующий эпик не должен меняться");
+        assertEquals(1, manager.getAllEpics().size());
+    }
+
+    @Test
+    void duplicateSourceEpicIdsShouldBeRejected() {
+        TaskManager manager = new InMemoryTaskManager();
+
+        assertThrows(IllegalArgumentException.class, () -> manager.importTasks(Stream.of(
+                epic(10, "Первый"),
+                epic(10, "Второй"),
+                subtask(11, "Подзадача", TaskStatus.NEW, 10))));
+
+        assertTrue(manager.getAllEpics().isEmpty());
+        assertTrue(manager.getAllSubtasks().isEmpty());
+    }
+
+    @Test
+    void invalidItemShouldCancelWholeImport() {
+        TaskManager manager = new InMemoryTaskManager();
+        manager.createTask("Существующая", "Описание");
+
+        assertThrows(IllegalArgumentException.class, () -> manager.importTasks(Stream.of(
+                task(1, "Задача", TaskStatus.NEW),
+                subtask(2, "Подзадача без эпика", TaskStatus.NEW, 999))));
+        assertThrows(IllegalArgumentException.class, () -> manager.importTasks(Stream.of(
+                task(1, " ", TaskStatus.NEW))));
+
+        assertEquals(1, manager.getAllTasks().size());
+        assertEquals(2, manager.createTask("Следующая", "Описание"), "Идентификаторы не должны теряться");
+    }
+
+    @Test
+    void fileBackedImportShouldPersistOnce() {
+        File file = tempDir.resolve("tasks.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL);
+        manager.createTask("Существующая", "Описание");
+        long flushes = manager.getMetrics().getFlushCount();
+
+        List<Integer> ids = manager.importTasks(IntStream.range(0, 1_000).mapToObj(i -> i % 10 == 0
+                ? epic(i, "Эпик " + i)
+                : subtask(i, "Подзадача " + i, TaskStatus.DONE, i - i % 10)));
+
+        assertEquals(flushes + 1, manager.getMetrics().getFlushCount(), "Импорт должен записываться один раз");
+        assertFalse(new File(file.getPath() + ".log").exists(), "Импорт записывается снимком, а не журналом");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        assertEquals(100, loaded.getAllEpics().size());
+        assertEquals(900, loaded.getAllSubtasks().size());
+        assertEquals(TaskStatus.DONE, loaded.getEpic(ids.get(0)).getStatus());
+        assertEquals(1, loaded.getAllTasks().size());
+    }
+
+    @Test
+    void importShouldReachPartitions() {
+        File file = tempDir.resolve("tasks.csv").toFile();
+        PersistenceSettings settings = PersistenceSettings.defaults().withMode(PersistenceMode.SHARDED);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        manager.createTask("Существующая", "Описание");
+
+        manager.importTasks(Stream.of(epic(1, "Эпик"), subtask(2, "Подзадача", TaskStatus.NEW, 1)));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(1, loaded.getAllEpics().getFirst().getSubtaskIds().size());
+    }
+
+    private static Task task(int id, String name, TaskStatus status) {
+        Task task = new Task(name, "Описание");
+        task.setId(id);
+        task.setStatus(status);
+        return task;
+    }
+
+    private static Epic epic(int id, String name) {
+        Epic epic = new Epic(name, "Описание");
+        epic.setId(id);
+        return epic;
+    }
+
+    private static Subtask subtask(int id, String name, TaskStatus status, int epicId) {
+        Subtask subtask = new Subtask(name, "Описание", epicId);
+        subtask.setId(id);
+        subtask.setStatus(status);
+        return subtask;
+    }
+}
@@ -0,0 +1,130 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.ConcurrentTaskManager;
+import main.ru.practicum.kanban.manager.Managers;
+import main.ru.practicum.kanban.manager.TaskManager;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты потокобезопасного менеджера задач.
+ */
+public class ConcurrentTaskManagerTest {
+    private static final int THREADS = 8;
+
+    @Test
+    void getConcurrentShouldReturnConcurrentManager() {
+        assertInstanceOf(ConcurrentTaskManager.class, Managers.getConcurrent());
+    }
+
+    @Test
+    void concurrentCreationShouldAssignUniqueIds() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        List<Integer> ids = runInParallel(thread -> {
+            List<Integer> created = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                created.add(manager.createTask("Задача " + thread + "-" + i, "Описание"));
+            }
+            return created;
+        });
+
+        assertEquals(THREADS * 1000, ids.size());
+        assertEquals(ids.size(), new HashSet<>(ids).size(), "Идентификаторы не должны повторяться");
+        assertEquals(ids.size(), manager.getAllTasks().size());
+    }
+
+    @Test
+    void epicStatusShouldStayConsistentUnderConcurrentUpdates() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        int epicId = manager.createEpic("Эпик", "Описание");
+        for (int i = 0; i < THREADS; i++) {
+            manager.createSubtask("Подзадача " + i, "Описание", epicId);
+        }
+        List<Integer> subtaskIds = manager.getEpic(epicId).getSubtaskIds();
+
+        runInParallel(thread -> {
+            int subtaskId = subtaskIds.get(thread);
+            for (int i = 0; i < 500; i++) {
+                Subtask subtask = manager.getSubtask(subtaskId);
+                subtask.setStatus(i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.DONE);
+                manager.updateSubtask(subtask);
+                // Чтения идут вперемешку с изменениями
+                assertEquals(THREADS, manager.getEpicSubtasks(epicId).size());
+            }
+            Subtask subtask = manager.getSubtask(subtaskId);
+            subtask.setStatus(TaskStatus.DONE);
+            manager.updateSubtask(subtask);
+            return List.of();
+        });
+
+        Epic epic = manager.getEpic(epicId);
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "Все подзадачи завершены");
+    }
+
+    @Test
+    void historyShouldSurviveConcurrentViewsAndDeletes() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        List<Integer> taskIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            taskIds.add(manager.createTask("Задача " + i, "Описание"));
+        }
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 2000; i++) {
+                int id = taskIds.get((thread * 31 + i) % taskIds.size());
+                if (thread == 0 && i % 20 == 0) {
+                    manager.deleteTask(id);
+                } else {
+                    manager.getTask(id);
+                }
+                manager.getHistory();
+            }
+            return List.of();
+        });
+
+        Set<Integer> remaining = new HashSet<>();
+        for (Task task : manager.getAllTasks()) {
+            remaining.add(task.getId());
+        }
+        for (Task viewed : manager.getHistory()) {
+            assertTrue(remaining.contains(viewed.getId()), "Удаленная задача не должна оставаться в истории");
+        }
+        assertEquals(new HashSet<>(manager.getHistory()).size(), manager.getHistory().size(),
+                "История не должна содержать повторов");
+    }
+
+    private interface Worker {
+        List<Integer> run(int thread) throws Exception;
+    }
+
+    private static List<Integer> runInParallel(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> worker.run(index)));
+            }
+            List<Integer> results = new ArrayList<>();
+            for (Future<List<Integer>> future : futures) {
+                results.addAll(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedAsyncTest {
+
+    private File tempFile;
+    private File journalFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = Files.createTempFile("kanban_async", ".csv").toFile();
+        journalFile = new File(tempFile.getPath() + ".log");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        journalFile.delete();
+        new File(tempFile.getPath() + ".views").delete();
+    }
+
+    @Test
+    void awaitPersistedShouldMakeSnapshotVisible() {
+        PersistenceSettings settings = PersistenceSettings.defaults().withAsyncWriter(4);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings)) {
+            int taskId = manager.createTask("Задача", "Описание");
+            Task task = manager.getTask(taskId);
+            task.setStatus(TaskStatus.DONE);
+            manager.updateTask(task);
+
+            manager.awaitPersisted();
+
+            Task loaded = FileBackedTaskManager.loadFromFile(tempFile).getTask(taskId);
+            assertEquals(TaskStatus.DONE, loaded.getStatus());
+        }
+    }
+
+    @Test
+    void shouldPersistAllJournalBatchesWithSmallLag() {
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withAsyncWriter(1);
+        int epicId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings)) {
+            epicId = manager.createEpic("Эпик", "Описание эпика");
+            for (int i = 0; i < 200; i++) {
+                manager.createSubtask("Подзадача " + i, "Описание", epicId);
+            }
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+        assertEquals(200, loaded.getEpicSubtasks(epicId).size());
+    }
+
+    @Test
+    void shouldReportBackgroundWriteFailure() {
+        File unwritable = new File(tempFile.getParentFile(), "missing_dir_" + System.nanoTime() + "/board.csv");
+        PersistenceSettings settings = PersistenceSettings.defaults().withAsyncWriter(2);
+        FileBackedTaskManager manager = new FileBackedTaskManager(unwritable, settings);
+
+        manager.createTask("Задача", "Описание");
+
+        assertThrows(FileBackedTaskManager.ManagerSaveException.class, manager::awaitPersisted);
+    }
+
+    @Test
+    void shouldRejectInvalidLag() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withAsyncWriter(0));
+    }
+}
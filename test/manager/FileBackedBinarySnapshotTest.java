@@ -0,0 +1,139 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.SnapshotFormat;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedBinarySnapshotTest {
+
+    private File binaryFile;
+    private File csvFile;
+    private FileBackedTaskManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        binaryFile = Files.createTempFile("kanban_binary", ".bin").toFile();
+        csvFile = Files.createTempFile("kanban_export", ".csv").toFile();
+        manager = new FileBackedTaskManager(binaryFile,
+                PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.BINARY));
+    }
+
+    @AfterEach
+    void tearDown() {
+        binaryFile.delete();
+        csvFile.delete();
+        new File(binaryFile.getPath() + ".views").delete();
+        new File(csvFile.getPath() + ".views").delete();
+    }
+
+    @Test
+    void shouldRoundTripTasksEpicsSubtasksAndHistory() {
+        int taskId = manager.createTask("Задача, с \"запятой\"", "Описание\nв две строки");
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача", "", epicId);
+        manager.getEpic(epicId);
+        manager.getTask(taskId);
+        // История сохраняется вместе со следующим изменением
+        Subtask subtask = manager.getEpicSubtasks(epicId).getFirst();
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(binaryFile);
+
+        Task task = loaded.getAllTasks().getFirst();
+        assertEquals("Задача, с \"запятой\"", task.getName());
+        assertEquals("Описание\nв две строки", task.getDescription());
+        assertEquals(TaskStatus.DONE, loaded.getAllEpics().getFirst().getStatus());
+        assertEquals("", loaded.getAllSubtasks().getFirst().getDescription());
+        assertEquals(epicId, loaded.getAllSubtasks().getFirst().getEpicId());
+
+        List<Task> history = loaded.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(epicId, history.get(0).getId());
+        assertEquals(taskId, history.get(1).getId());
+    }
+
+    @Test
+    void binarySnapshotShouldBeSmallerThanCsv() {
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        for (int i = 0; i < 100; i++) {
+            manager.createSubtask("Подзадача " + i, "Описание подзадачи " + i, epicId);
+        }
+
+        manager.exportCsv(csvFile);
+
+        assertTrue(binaryFile.length() < csvFile.length(),
+                "Двоичный снимок должен быть компактнее CSV");
+    }
+
+    @Test
+    void exportedCsvShouldBeLoadable() throws IOException {
+        int taskId = manager.createTask("Задача", "Описание");
+
+        manager.exportCsv(csvFile);
+
+        assertTrue(Files.readString(csvFile.toPath(), StandardCharsets.UTF_8)
+                .startsWith("id,type,name,status,description,epic"));
+        assertEquals("Задача", FileBackedTaskManager.loadFromFile(csvFile).getTask(taskId).getName());
+    }
+
+    @Test
+    void shouldContinueInCsvAfterLoadingBinarySnapshot() throws IOException {
+        manager.createTask("Задача", "Описание");
+
+        FileBackedTaskManager csvManager = FileBackedTaskManager.loadFromFile(binaryFile);
+        csvManager.createTask("Вторая задача", "Описание");
+
+        assertTrue(Files.readString(binaryFile.toPath(), StandardCharsets.UTF_8).startsWith("id,type"));
+        assertEquals(2, FileBackedTaskManager.loadFromFile(binaryFile).getAllTasks().size());
+    }
+
+    @Test
+    void memoryMappedLoadShouldMatchStreamLoad() {
+        int taskId = manager.createTask("Задача", "Длинное описание ".repeat(40));
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        for (int i = 0; i < 200; i++) {
+            manager.createSubtask("Подзадача " + i, "Описание подзадачи " + i, epicId);
+        }
+        manager.getTask(taskId);
+        manager.createTask("Последняя", "");
+
+        FileBackedTaskManager streamed = FileBackedTaskManager.loadFromFile(binaryFile);
+        FileBackedTaskManager mapped = FileBackedTaskManager.loadFromFile(binaryFile,
+                PersistenceSettings.defaults().withMemoryMappedLoad(true));
+
+        assertEquals(streamed.getAllTasks().size(), mapped.getAllTasks().size());
+        assertEquals(streamed.getTask(taskId).getDescription(), mapped.getTask(taskId).getDescription());
+        assertEquals(streamed.getEpic(epicId).getSubtaskIds(), mapped.getEpic(epicId).getSubtaskIds());
+        assertEquals("Подзадача 199", mapped.getAllSubtasks().getLast().getName());
+        assertEquals(taskId, mapped.getHistory().getFirst().getId());
+        assertTrue(mapped.getLoadReport().isClean());
+    }
+
+    @Test
+    void memoryMappedLoadShouldRejectTruncatedSnapshot() throws IOException {
+        manager.createTask("Задача", "Описание");
+        byte[] content = Files.readAllBytes(binaryFile.toPath());
+        // Обрыв посреди записи, контрольной суммы нет
+        Files.write(binaryFile.toPath(), Arrays.copyOf(content, 12));
+
+        assertThrows(FileBackedTaskManager.ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(binaryFile,
+                        PersistenceSettings.defaults().withMemoryMappedLoad(true)));
+    }
+}
@@ -0,0 +1,118 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedCoalescingTest {
+
+    private File tempFile;
+    private File journalFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = Files.createTempFile("kanban_coalescing", ".csv").toFile();
+        journalFile = new File(tempFile.getPath() + ".log");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        journalFile.delete();
+        new File(tempFile.getPath() + ".views").delete();
+    }
+
+    @Test
+    void shouldDeferSnapshotUntilBatchIsFull() {
+        PersistenceSettings settings = PersistenceSettings.defaults().withCoalescing(5, 0);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+
+        for (int i = 0; i < 4; i++) {
+            manager.createTask("Задача " + i, "Описание");
+        }
+        assertEquals(0, tempFile.length(), "До заполнения пакета файл не должен меняться");
+
+        manager.createTask("Задача 4", "Описание");
+        assertEquals(5, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size());
+    }
+
+    @Test
+    void flushShouldPersistPendingChanges() {
+        PersistenceSettings settings = PersistenceSettings.defaults().withCoalescing(1_000, 0);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        manager.flush();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(1, loaded.getAllEpics().size());
+        assertEquals(1, loaded.getEpicSubtasks(epicId).size());
+    }
+
+    @Test
+    void closeShouldFlushJournalBatch() {
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withCoalescing(1_000, 0);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+        manager.createTask("Первая задача", "Описание");
+        manager.flush();
+        long journalSize = journalFile.length();
+
+        try (manager) {
+            for (int i = 0; i < 10; i++) {
+                manager.createTask("Задача " + i, "Описание");
+            }
+            assertEquals(journalSize, journalFile.length(), "Пакет не должен записываться до сброса");
+        }
+
+        assertEquals(11, FileBackedTaskManager.loadFromFile(tempFile, settings).getAllTasks().size());
+    }
+
+    @Test
+    void shouldFlushWhenIntervalElapsed() throws InterruptedException {
+        PersistenceSettings settings = PersistenceSettings.defaults().withCoalescing(Integer.MAX_VALUE, 10);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+
+        Thread.sleep(20);
+        manager.createTask("Задача", "Описание");
+
+        assertEquals(1, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size());
+    }
+
+    @Test
+    void idleBatchShouldBeFlushedWhenIntervalElapses() throws InterruptedException {
+        PersistenceSettings settings = PersistenceSettings.defaults().withCoalescing(Integer.MAX_VALUE, 500);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+
+        manager.createTask("Задача", "Описание");
+        assertEquals(0, tempFile.length(), "До истечения интервала файл не должен меняться");
+
+        // Новых изменений нет: пакет сбрасывает фоновый поток
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (tempFile.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size(),
+                "Пакет должен быть сброшен по истечении интервала");
+        manager.close();
+    }
+
+    @Test
+    void shouldRejectInvalidCoalescingSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withCoalescing(0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withCoalescing(1, -1));
+    }
+}
@@ -0,0 +1,127 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMetrics;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedCompactionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+    private File journalFile;
+    private PersistenceSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("tasks.csv").toFile();
+        journalFile = new File(file.getPath() + ".log");
+        settings = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withCompaction(4 * 1024, 1.0);
+    }
+
+    @Test
+    void compactionShouldFoldJournalIntoSnapshot() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        int taskId = manager.createTask("Задача", "Описание");
+        // Многократные изменения одной задачи раздувают журнал
+        for (int i = 0; i < 200; i++) {
+            Task task = manager.getTask(taskId);
+            task.setName("Задача, версия " + i);
+            manager.updateTask(task);
+        }
+
+        manager.compact();
+
+        PersistenceMetrics metrics = manager.getMetrics();
+        assertTrue(metrics.getCompactionCount() >= 1);
+        assertTrue(metrics.getTotalReclaimedBytes() > 0, "Свертка должна освобождать место");
+        assertFalse(journalFile.exists(), "Активный журнал должен быть свернут");
+        assertEquals(0, sealedSegmentCount());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals("Задача, версия 199", loaded.getTask(taskId).getName());
+    }
+
+    @Test
+    void compactionShouldStartInBackgroundWhenThresholdExceeded() throws InterruptedException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        for (int i = 0; i < 500; i++) {
+            manager.createTask("Задача " + i, "Описание задачи номер " + i);
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (manager.getMetrics().getCompactionCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(manager.getMetrics().getCompactionCount() > 0, "Уплотнение должно запуститься само");
+        manager.close();
+
+        assertEquals(500, FileBackedTaskManager.loadFromFile(file, settings).getAllTasks().size());
+    }
+
+    @Test
+    void shouldReplaySealedSegmentsLeftAfterCrash() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                PersistenceSettings.defaults().withMode(PersistenceMode.JOURNAL));
+        manager.createTask("Первая", "Описание");
+        int taskId = manager.createTask("Вторая", "Описание");
+        // Сбой после ротации: сегмент закрыт, но еще не свернут
+        Files.move(journalFile.toPath(), new File(journalFile.getPath() + ".000001").toPath());
+        Task task = manager.getTask(taskId);
+        task.setStatus(TaskStatus.DONE);
+        manager.updateTask(task);
+        manager.deleteTask(1);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(TaskStatus.DONE, loaded.getTask(taskId).getStatus());
+
+        loaded.compact();
+        assertEquals(0, sealedSegmentCount());
+        assertEquals(1, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+    }
+
+    @Test
+    void checkpointShouldRemoveSealedSegments() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        manager.createTask("Задача", "Описание");
+        manager.createTask("Задача", "Описание");
+        // Сегмент, оставшийся после сбоя
+        Files.move(journalFile.toPath(), new File(journalFile.getPath() + ".000001").toPath());
+
+        FileBackedTaskManager restarted = FileBackedTaskManager.loadFromFile(file, settings);
+        restarted.checkpoint();
+
+        assertEquals(0, sealedSegmentCount());
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file, settings).getAllTasks().size());
+    }
+
+    @Test
+    void shouldRejectInvalidCompactionSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withCompaction(0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withCompaction(1024, -1.0));
+    }
+
+    private int sealedSegmentCount() {
+        File[] segments = tempDir.toFile().listFiles((dir, name) -> name.matches("tasks\\.csv\\.log\\.\\d+"));
+        return segments == null ? 0 : segments.length;
+    }
+}
@@ -0,0 +1,153 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.CompressionCodec;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.LoadReport;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.SnapshotFormat;
+import main.ru.practicum.kanban.manager.StandardCompression;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedCompressionTest {
+
+    private static final int TASK_COUNT = 2_000;
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("tasks.csv").toFile();
+    }
+
+    @Test
+    void gzipSnapshotShouldBeSmallerAndRoundTrip() {
+        File plainFile = tempDir.resolve("plain.csv").toFile();
+        fill(new FileBackedTaskManager(plainFile, bulk(PersistenceSettings.defaults())));
+        fill(new FileBackedTaskManager(file, bulk(PersistenceSettings.defaults()
+                .withCompression(StandardCompression.GZIP))));
+
+        assertTrue(file.length() * 5 < plainFile.length(),
+                "Сжатый снимок должен быть хотя бы в 5 раз меньше: " + file.length() + " / " + plainFile.length());
+
+        // Сжатие определяется по содержимому файла, настройки для загрузки не нужны
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertLoaded(loaded);
+        assertEquals(LoadReport.ChecksumStatus.VERIFIED, loaded.getLoadReport().getChecksumStatus());
+    }
+
+    @Test
+    void binarySnapshotShouldLoadWithParallelBlockDecompression() {
+        PersistenceSettings settings = bulk(PersistenceSettings.defaults())
+                .withSnapshotFormat(SnapshotFormat.BINARY)
+                .withCompression(StandardCompression.DEFLATE, 4 * 1024);
+        fill(new FileBackedTaskManager(file, settings));
+
+        assertLoaded(FileBackedTaskManager.loadFromFile(file, settings.withParallelLoad(4)));
+    }
+
+    @Test
+    void customCodecShouldBeResolvedFromSettings() {
+        PersistenceSettings settings = bulk(PersistenceSettings.defaults())
+                .withCompression(new ReversingCodec(), 1024);
+        fill(new FileBackedTaskManager(file, settings));
+
+        assertLoaded(FileBackedTaskManager.loadFromFile(file, settings));
+        assertThrows(FileBackedTaskManager.ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(file),
+                "Без кодека в настройках неизвестный алгоритм должен приводить к ошибке");
+    }
+
+    @Test
+    void segmentsAndJournalShouldWorkWithCompression() {
+        PersistenceSettings segmented = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.SEGMENTED)
+                .withSegmentSize(64)
+                .withCompression(StandardCompression.GZIP);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, segmented);
+        fill(manager);
+        assertLoaded(FileBackedTaskManager.loadFromFile(file, segmented));
+
+        File journaled = tempDir.resolve("journal.csv").toFile();
+        PersistenceSettings journal = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withCompression(StandardCompression.GZIP);
+        FileBackedTaskManager journalManager = new FileBackedTaskManager(journaled, journal);
+        fill(journalManager);
+        journalManager.checkpoint();
+        int taskId = journalManager.createTask("После контрольной точки", "Описание");
+        assertEquals(taskId, FileBackedTaskManager.loadFromFile(journaled, journal).getTask(taskId).getId());
+    }
+
+    @Test
+    void shouldRejectInvalidCompressionSettings() {
+        assertThrows(IllegalArgumentException.class, () -> PersistenceSettings.defaults().withCompression(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withCompression(StandardCompression.GZIP, 0));
+    }
+
+    // Запись на диск откладывается до конца заполнения
+    private static PersistenceSettings bulk(PersistenceSettings settings) {
+        return settings.withCoalescing(Integer.MAX_VALUE, 0);
+    }
+
+    private static void fill(FileBackedTaskManager manager) {
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        for (int i = 0; i < TASK_COUNT; i++) {
+            manager.createTask("Задача " + i, "Повторяющееся описание задачи, одинаковое для всех");
+        }
+        manager.createSubtask("Подзадача", "Описание, с \"кавычками\"", epicId);
+        Subtask subtask = manager.getAllSubtasks().get(0);
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+        manager.getTask(2);
+        manager.close();
+    }
+
+    private static void assertLoaded(FileBackedTaskManager loaded) {
+        assertEquals(TASK_COUNT, loaded.getAllTasks().size());
+        assertEquals(1, loaded.getAllSubtasks().size());
+        assertEquals(TaskStatus.DONE, loaded.getAllEpics().get(0).getStatus());
+        assertEquals("Описание, с \"кавычками\"", loaded.getAllSubtasks().get(0).getDescription());
+        assertEquals("Задача 0", loaded.getTask(2).getName());
+    }
+
+    // Пользовательский кодек: переворачивает байты блока
+    private static class ReversingCodec implements CompressionCodec {
+        @Override
+        public int id() {
+            return 200;
+        }
+
+        @Override
+        public byte[] compress(byte[] data, int offset, int length) {
+            byte[] result = Arrays.copyOfRange(data, offset, offset + length);
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                byte b = result[i];
+                result[i] = result[j];
+                result[j] = b;
+            }
+            return result;
+        }
+
+        @Override
+        public void decompress(byte[] data, int offset, int length, byte[] target) {
+            for (int i = 0; i < length; i++) {
+                target[i] = data[offset + length - 1 - i];
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.LoadReport;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.SnapshotFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedCrashSafetyTest {
+
+    private File tempFile;
+    private File tmpSibling;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = Files.createTempFile("kanban_crash", ".csv").toFile();
+        tmpSibling = new File(tempFile.getPath() + ".tmp");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        tmpSibling.delete();
+        new File(tempFile.getPath() + ".views").delete();
+    }
+
+    @Test
+    void savedSnapshotShouldPassChecksumVerification() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        manager.createTask("Задача", "Описание");
+
+        String content = Files.readString(tempFile.toPath(), StandardCharsets.UTF_8);
+        assertTrue(content.matches("(?s).*\\n#CRC32:[0-9a-f]{8}\\n"), "В конце снимка должна быть контрольная сумма");
+        assertFalse(tmpSibling.exists(), "Временный файл должен быть переименован");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(LoadReport.ChecksumStatus.VERIFIED, loaded.getLoadReport().getChecksumStatus());
+        assertTrue(loaded.getLoadReport().isClean());
+    }
+
+    @Test
+    void shouldRejectCorruptedSnapshot() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        manager.createTask("Задача", "Описание задачи");
+
+        // Портим один байт внутри данных
+        try (RandomAccessFile raf = new RandomAccessFile(tempFile, "rw")) {
+            raf.seek(40);
+            int b = raf.read();
+            raf.seek(40);
+            raf.write(b ^ 0x01);
+        }
+
+        assertThrows(FileBackedTaskManager.ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(tempFile));
+    }
+
+    @Test
+    void corruptionShouldBeDetectedOnEveryLoadPath() throws IOException {
+        PersistenceSettings binary = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.BINARY);
+        PersistenceSettings[] loadPaths = {
+                PersistenceSettings.defaults(),
+                PersistenceSettings.defaults().withParallelLoad(3),
+                binary,
+                binary.withMemoryMappedLoad(true)
+        };
+        for (PersistenceSettings settings : loadPaths) {
+            FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+            int taskId = manager.createTask("Задача", "Описание задачи");
+            manager.getTask(taskId);
+            manager.close();
+
+            FileBackedTaskManager intact = FileBackedTaskManager.loadFromFile(tempFile, settings);
+            assertEquals(LoadReport.ChecksumStatus.VERIFIED, intact.getLoadReport().getChecksumStatus());
+            intact.close();
+
+            // Последний байт перед контрольной суммой (история и следующий id) разбирается
+            // без ошибок, поэтому повреждение видно только по сумме
+            try (RandomAccessFile raf = new RandomAccessFile(tempFile, "rw")) {
+                long position = raf.length() - "#CRC32:xxxxxxxx\n".length() - 2;
+                raf.seek(position);
+                int b = raf.read();
+                raf.seek(position);
+                raf.write(b ^ 0x01);
+            }
+            assertThrows(FileBackedTaskManager.ManagerSaveException.class,
+                    () -> FileBackedTaskManager.loadFromFile(tempFile, settings),
+                    "Поврежденный снимок должен отклоняться: " + settings.getSnapshotFormat());
+            tempFile.delete();
+            new File(tempFile.getPath() + ".views").delete();
+        }
+    }
+
+    @Test
+    void shouldVerifyBinarySnapshot() {
+        PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, settings);
+        manager.createEpic("Эпик", "Описание");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(LoadReport.ChecksumStatus.VERIFIED, loaded.getLoadReport().getChecksumStatus());
+        assertEquals(1, loaded.getAllEpics().size());
+    }
+
+    @Test
+    void shouldLoadLegacySnapshotWithoutChecksum() throws IOException {
+        Files.writeString(tempFile.toPath(),
+                "id,type,name,status,description,epic\n1,TASK,Задача,NEW,Описание,\n\n1");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(LoadReport.ChecksumStatus.MISSING, loaded.getLoadReport().getChecksumStatus());
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(1, loaded.getHistory().size());
+    }
+
+    @Test
+    void shouldReportUnparsableRecords() throws IOException {
+        Files.writeString(tempFile.toPath(),
+                "id,type,name,status,description,epic\n"
+                        + "1,TASK,Задача,NEW,Описание,\n"
+                        + "2,UNKNOWN,Непонятно,NEW,Описание,\n"
+                        + "3,TASK,Задача,WRONG_STATUS,Описание,\n");
+
+        LoadReport report = FileBackedTaskManager.loadFromFile(tempFile).getLoadReport();
+
+        assertEquals(2, report.getSkippedRecords());
+        assertTrue(report.getSkippedSamples().getFirst().startsWith("2,UNKNOWN"));
+        assertFalse(report.isClean());
+    }
+
+    @Test
+    void leftoverTemporaryFileShouldNotAffectLoading() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        manager.createTask("Задача", "Описание");
+        // Имитация сбоя во время следующей записи: недописанный временный файл
+        Files.writeString(tmpSibling.toPath(), "id,type,name,status,description,epic\n2,TA");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertTrue(loaded.getLoadReport().isClean());
+    }
+}
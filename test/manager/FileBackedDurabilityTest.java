@@ -0,0 +1,95 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.Durability;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.Managers;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.TaskManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedDurabilityTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("tasks.csv").toFile();
+    }
+
+    @Test
+    void noneShouldWriteOnlyOnExplicitFlush() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                PersistenceSettings.defaults().withDurability(Durability.NONE));
+        manager.createTask("Задача", "Описание");
+        manager.createTask("Задача", "Описание");
+        assertFalse(file.exists(), "Без явного сброса файл не должен создаваться");
+        assertEquals(0, manager.getMetrics().getFlushCount());
+
+        manager.flush();
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+    }
+
+    @Test
+    void noneShouldPersistOnClose() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                PersistenceSettings.defaults().withMode(PersistenceMode.JOURNAL).withDurability(Durability.NONE));
+        manager.createTask("Задача", "Описание");
+        manager.createEpic("Эпик", "Описание");
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(1, loaded.getAllEpics().size());
+    }
+
+    @Test
+    void fsyncShouldIgnoreCoalescing() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withCoalescing(1000, 0)
+                .withDurability(Durability.FSYNC));
+        manager.createTask("Первая", "Описание");
+        manager.createTask("Вторая", "Описание");
+
+        assertEquals(2, manager.getMetrics().getFlushCount(), "Каждое изменение должно записываться сразу");
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL).getAllTasks().size());
+    }
+
+    @Test
+    void everyLevelShouldRoundTrip() {
+        for (Durability durability : Durability.values()) {
+            assertRoundTrip(durability);
+        }
+    }
+
+    @Test
+    void shouldRejectEmptyDurability() {
+        assertThrows(IllegalArgumentException.class, () -> PersistenceSettings.defaults().withDurability(null));
+    }
+
+    private void assertRoundTrip(Durability durability) {
+        file.delete();
+        TaskManager manager = Managers.getFileBackedTaskManager(file, durability);
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача", "Описание, с запятой", epicId);
+        manager.createTask("Задача", "Описание");
+        ((FileBackedTaskManager) manager).close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(1, loaded.getAllEpics().size(), durability.name());
+        assertEquals(1, loaded.getAllSubtasks().size(), durability.name());
+        assertEquals(1, loaded.getAllTasks().size(), durability.name());
+        assertEquals(durability, ((FileBackedTaskManager) manager).getSettings().getDurability());
+    }
+}
@@ -0,0 +1,127 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.Durability;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedHistoryJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+    private File viewsFile;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("tasks.csv").toFile();
+        viewsFile = new File(file.getPath() + ".views");
+    }
+
+    @Test
+    void viewsShouldBePersistedWithoutMutations() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int first = manager.createTask("Первая", "Описание");
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        int subtaskId = manager.getAllSubtasks().getFirst().getId();
+        long flushes = manager.getMetrics().getFlushCount();
+
+        manager.getSubtask(subtaskId);
+        manager.getTask(first);
+        manager.getEpic(epicId);
+        manager.getTask(first);
+
+        assertEquals(flushes, manager.getMetrics().getFlushCount(), "Просмотр не должен перезаписывать снимок");
+        assertEquals(4 * Integer.BYTES, viewsFile.length());
+        assertEquals(List.of(subtaskId, epicId, first), historyIds(FileBackedTaskManager.loadFromFile(file)));
+    }
+
+    @Test
+    void viewsOfDeletedTasksShouldBeSkipped() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL);
+        int first = manager.createTask("Первая", "Описание");
+        int second = manager.createTask("Вторая", "Описание");
+        manager.getTask(first);
+        manager.getTask(second);
+        manager.deleteTask(first);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        assertEquals(List.of(second), historyIds(loaded));
+    }
+
+    @Test
+    void newManagerShouldDiscardViewsOfPreviousContent() {
+        FileBackedTaskManager old = new FileBackedTaskManager(file);
+        int oldId = old.createTask("Старая", "Описание");
+        old.getTask(oldId);
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int newId = manager.createTask("Новая", "Описание");
+        assertEquals(oldId, newId);
+
+        assertTrue(FileBackedTaskManager.loadFromFile(file).getHistory().isEmpty(),
+                "Просмотры прежнего содержимого не должны попадать в историю");
+    }
+
+    @Test
+    void incompleteLastRecordShouldBeIgnored() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int taskId = manager.createTask("Задача", "Описание");
+        manager.getTask(taskId);
+        // Сбой посреди записи просмотра
+        try (FileOutputStream out = new FileOutputStream(viewsFile, true)) {
+            out.write(new byte[] {0, 0});
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(List.of(taskId), historyIds(loaded));
+        int secondId = loaded.createTask("Вторая", "Описание");
+        loaded.getTask(secondId);
+
+        assertEquals(List.of(taskId, secondId), historyIds(FileBackedTaskManager.loadFromFile(file)));
+    }
+
+    @Test
+    void journalShouldBeRewrittenWhenItGrows() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        int first = manager.createTask("Первая", "Описание");
+        int second = manager.createTask("Вторая", "Описание");
+        for (int i = 0; i < 20_000; i++) {
+            manager.getTask(i % 2 == 0 ? first : second);
+        }
+
+        assertTrue(viewsFile.length() < 20_000L * Integer.BYTES, "Журнал просмотров должен переписываться");
+        assertEquals(List.of(first, second), historyIds(FileBackedTaskManager.loadFromFile(file)));
+    }
+
+    @Test
+    void noneDurabilityShouldWriteViewsOnClose() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                PersistenceSettings.defaults().withDurability(Durability.NONE));
+        int taskId = manager.createTask("Задача", "Описание");
+        manager.flush();
+        manager.getTask(taskId);
+        assertFalse(viewsFile.exists());
+
+        manager.close();
+        assertEquals(List.of(taskId), historyIds(FileBackedTaskManager.loadFromFile(file)));
+    }
+
+    private static List<Integer> historyIds(FileBackedTaskManager manager) {
+        return manager.getHistory().stream().map(Task::getId).toList();
+    }
+}
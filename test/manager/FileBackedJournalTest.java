@@ -0,0 +1,120 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedJournalTest {
+
+    private File tempFile;
+    private File journalFile;
+    private FileBackedTaskManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = Files.createTempFile("kanban_journal", ".csv").toFile();
+        journalFile = new File(tempFile.getPath() + ".log");
+        manager = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        journalFile.delete();
+        new File(tempFile.getPath() + ".views").delete();
+    }
+
+    @Test
+    void shouldAppendToJournalWithoutRewritingSnapshot() {
+        manager.createTask("Задача 1", "Описание 1");
+        long snapshotSize = tempFile.length();
+
+        int taskId = manager.createTask("Задача 2", "Описание 2");
+        Task task = manager.getTask(taskId);
+        task.setStatus(TaskStatus.DONE);
+        manager.updateTask(task);
+
+        assertEquals(snapshotSize, tempFile.length(), "Снимок не должен перезаписываться");
+        assertTrue(journalFile.length() > 0, "Изменения должны попасть в журнал");
+    }
+
+    @Test
+    void shouldRestoreStateFromSnapshotAndJournal() {
+        int taskId = manager.createTask("Задача", "Описание");
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача 1", "Описание 1", epicId);
+        manager.createSubtask("Подзадача 2", "Описание 2", epicId);
+
+        Subtask subtask = manager.getEpicSubtasks(epicId).getFirst();
+        subtask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubtask(subtask);
+        manager.deleteTask(taskId);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+
+        assertTrue(loaded.getAllTasks().isEmpty());
+        assertEquals(2, loaded.getEpicSubtasks(epicId).size());
+        assertEquals(TaskStatus.IN_PROGRESS, loaded.getEpic(epicId).getStatus());
+        assertEquals(TaskStatus.IN_PROGRESS, loaded.getSubtask(subtask.getId()).getStatus());
+    }
+
+    @Test
+    void shouldReplayEpicDeletionWithSubtasks() {
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        manager.deleteEpic(epicId);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+
+        assertTrue(loaded.getAllEpics().isEmpty());
+        assertTrue(loaded.getAllSubtasks().isEmpty());
+    }
+
+    @Test
+    void shouldReplayMultilineDescriptions() {
+        manager.createTask("Первая задача", "Описание");
+        int taskId = manager.createTask("Задача", "Первая строка\nВторая, с \"кавычками\"");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+
+        assertEquals("Первая строка\nВторая, с \"кавычками\"", loaded.getTask(taskId).getDescription());
+    }
+
+    @Test
+    void checkpointShouldWriteSnapshotAndTruncateJournal() {
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+
+        manager.checkpoint();
+
+        assertFalse(journalFile.exists(), "После контрольной точки журнал должен быть очищен");
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        List<Epic> epics = loaded.getAllEpics();
+        assertEquals(1, epics.size());
+        assertEquals(1, loaded.getEpicSubtasks(epicId).size());
+    }
+
+    @Test
+    void snapshotModeShouldDiscardStaleJournal() {
+        manager.createTask("Задача", "Описание");
+
+        FileBackedTaskManager snapshotManager = FileBackedTaskManager.loadFromFile(tempFile);
+        snapshotManager.deleteAllTasks();
+
+        assertFalse(journalFile.exists());
+        assertTrue(FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL).getAllTasks().isEmpty());
+    }
+}
@@ -0,0 +1,173 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedLazyDescriptionTest {
+
+    private File tempFile;
+    private File descriptionFile;
+    private PersistenceSettings lazy;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = Files.createTempFile("kanban_lazy", ".csv").toFile();
+        descriptionFile = new File(tempFile.getPath() + ".desc");
+        lazy = PersistenceSettings.defaults().withLazyDescriptions(2);
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        for (int i = 0; i < 10; i++) {
+            manager.createSubtask("Подзадача " + i, "Длинное описание подзадачи " + i, epicId);
+        }
+        manager.createTask("Задача", "Описание задачи,\nв две строки");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        descriptionFile.delete();
+        new File(tempFile.getPath() + ".log").delete();
+        new File(tempFile.getPath() + ".views").delete();
+    }
+
+    @Test
+    void loadedDescriptionsShouldBeMovedToDescriptionFile() throws IOException {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile, lazy);
+
+        assertTrue(descriptionFile.exists());
+        String content = Files.readString(descriptionFile.toPath(), StandardCharsets.UTF_8);
+        for (Subtask subtask : manager.getAllSubtasks()) {
+            assertTrue(content.contains(subtask.getDescription()), "Описание должно храниться в файле описаний");
+        }
+    }
+
+    @Test
+    void returnedCopiesShouldNotDependOnDescriptionFile() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile, lazy);
+        Task task = manager.getAllTasks().getFirst();
+        Epic epic = manager.getEpic(manager.getAllEpics().getFirst().getId());
+        manager.close();
+        descriptionFile.delete();
+
+        assertEquals("Описание задачи,\nв две строки", task.getDescription());
+        assertEquals("Описание эпика", epic.getDescription());
+        assertTrue(epic.toString().contains("Описание эпика"));
+    }
+
+    @Test
+    void getShouldReturnHydratedDescriptions() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile, lazy);
+
+        // Кэш меньше числа задач: описания вытесняются и читаются повторно
+        for (int round = 0; round < 2; round++) {
+            for (Subtask subtask : manager.getAllSubtasks()) {
+                Subtask loaded = manager.getSubtask(subtask.getId());
+                assertEquals("Длинное описание подзадачи " + loaded.getName().substring("Подзадача ".length()),
+                        loaded.getDescription());
+            }
+        }
+        Task task = manager.getAllTasks().getFirst();
+        assertEquals("Описание задачи,\nв две строки", manager.getTask(task.getId()).getDescription());
+    }
+
+    @Test
+    void updatedDescriptionsShouldBePersisted() throws IOException {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile, lazy);
+        Epic epic = manager.getAllEpics().getFirst();
+        epic.setDescription("Новое описание эпика");
+        manager.updateEpic(epic);
+        Subtask subtask = manager.getAllSubtasks().getFirst();
+        subtask.setName("Переименованная подзадача");
+        manager.updateSubtask(subtask);
+
+        assertTrue(Files.readString(descriptionFile.toPath(), StandardCharsets.UTF_8).contains("Новое описание эпика"));
+        assertEquals("Новое описание эпика", manager.getEpic(epic.getId()).getDescription());
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals("Новое описание эпика", reloaded.getEpic(epic.getId()).getDescription());
+        assertEquals(subtask.getDescription(), reloaded.getSubtask(subtask.getId()).getDescription());
+    }
+
+    @Test
+    void unchangedDescriptionsShouldNotGrowDescriptionFile() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile,
+                lazy.withMode(PersistenceMode.JOURNAL));
+        int taskId = manager.getAllTasks().getFirst().getId();
+        Epic epic = manager.getAllEpics().getFirst();
+        long initialSize = descriptionFile.length();
+
+        for (int i = 0; i < 200; i++) {
+            Task task = manager.getTask(taskId);
+            task.setStatus(i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.NEW);
+            manager.updateTask(task);
+            Epic loaded = manager.getEpic(epic.getId());
+            loaded.setName("Эпик " + i);
+            manager.updateEpic(loaded);
+        }
+
+        assertEquals(initialSize, descriptionFile.length(), "Неизмененные описания не должны дописываться");
+        assertEquals("Описание задачи,\nв две строки", manager.getTask(taskId).getDescription());
+        manager.close();
+    }
+
+    @Test
+    void checkpointShouldCompactDescriptionFile() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile, lazy);
+        int taskId = manager.getAllTasks().getFirst().getId();
+        long initialSize = descriptionFile.length();
+        Task before = manager.getAllTasks().getFirst();
+
+        for (int i = 0; i < 200; i++) {
+            Task task = manager.getTask(taskId);
+            task.setDescription("Описание задачи " + i);
+            manager.updateTask(task);
+        }
+        assertTrue(descriptionFile.length() > initialSize);
+
+        manager.checkpoint();
+        assertTrue(descriptionFile.length() <= initialSize,
+                "После контрольной точки в файле остаются только действующие описания");
+        assertEquals("Описание задачи 199", manager.getTask(taskId).getDescription());
+        for (Subtask subtask : manager.getAllSubtasks()) {
+            assertEquals("Длинное описание подзадачи " + subtask.getName().substring("Подзадача ".length()),
+                    subtask.getDescription());
+        }
+        // Копия, выданная до уплотнения, хранит описание сама
+        assertEquals("Описание задачи,\nв две строки", before.getDescription());
+        manager.close();
+    }
+
+    @Test
+    void shouldWorkWithJournalReplay() {
+        PersistenceSettings journal = lazy.withMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager writer = FileBackedTaskManager.loadFromFile(tempFile, journal);
+        int taskId = writer.createTask("Задача из журнала", "Описание из журнала");
+        writer.close();
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile, journal);
+        assertEquals("Описание из журнала", manager.getTask(taskId).getDescription());
+        assertEquals(2, manager.getAllTasks().size());
+    }
+
+    @Test
+    void shouldRejectInvalidCacheSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withLazyDescriptions(0));
+    }
+}
@@ -0,0 +1,98 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedParallelLoadTest {
+
+    private static final int EPICS = 50;
+    private static final int SUBTASKS_PER_EPIC = 300;
+
+    private File tempFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = Files.createTempFile("kanban_parallel", ".csv").toFile();
+        Files.writeString(tempFile.toPath(), buildLargeSnapshot(), StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        new File(tempFile.getPath() + ".views").delete();
+    }
+
+    @Test
+    void parallelLoadShouldMatchSequentialLoad() {
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(tempFile,
+                PersistenceSettings.defaults().withParallelLoad(4));
+
+        assertEquals(sequential.getAllTasks().size(), parallel.getAllTasks().size());
+        assertEquals(EPICS, parallel.getAllEpics().size());
+        assertEquals(EPICS * SUBTASKS_PER_EPIC, parallel.getAllSubtasks().size());
+
+        for (Epic epic : sequential.getAllEpics()) {
+            assertEquals(epic.getSubtaskIds(), parallel.getEpic(epic.getId()).getSubtaskIds(),
+                    "Порядок подзадач эпика должен совпадать");
+            assertEquals(epic.getStatus(), parallel.getEpic(epic.getId()).getStatus());
+        }
+
+        for (Subtask subtask : sequential.getAllSubtasks()) {
+            Subtask loaded = parallel.getSubtask(subtask.getId());
+            assertEquals(subtask.getDescription(), loaded.getDescription());
+            assertEquals(subtask.getEpicId(), loaded.getEpicId());
+        }
+    }
+
+    @Test
+    void parallelLoadShouldRestoreHistory() {
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(tempFile,
+                PersistenceSettings.defaults().withParallelLoad(3));
+
+        List<Task> history = parallel.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(1, history.get(0).getId());
+        assertEquals(2, history.get(1).getId());
+    }
+
+    @Test
+    void shouldRejectInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withParallelLoad(0));
+    }
+
+    // Снимок больше размера куска, с многострочными полями в кавычках
+    private static String buildLargeSnapshot() {
+        StringBuilder content = new StringBuilder("id,type,name,status,description,epic\n");
+        content.append("1,TASK,Задача,NEW,Описание,\n");
+        int id = 2;
+        for (int e = 0; e < EPICS; e++) {
+            int epicId = id++;
+            content.append(epicId).append(",EPIC,Эпик ").append(e).append(",IN_PROGRESS,Описание эпика,\n");
+            for (int s = 0; s < SUBTASKS_PER_EPIC; s++) {
+                content.append(id++).append(",SUBTASK,Подзадача,")
+                        .append(s % 2 == 0 ? "DONE" : "NEW")
+                        .append(",\"Длинное описание подзадачи ").append(s)
+                        .append(",\nсо второй строкой и \"\"кавычками\"\"\",")
+                        .append(epicId).append('\n');
+            }
+        }
+        content.append("\n1,2");
+        return content.toString();
+    }
+}
@@ -0,0 +1,196 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.RecoveryPoint;
+import main.ru.practicum.kanban.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты восстановления доски на момент времени из архива снимков и журнала.
+ */
+public class FileBackedPointInTimeRecoveryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+    private PersistenceSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("tasks.csv").toFile();
+        settings = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withRecoveryArchive(TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Test
+    void sequenceShouldGrowAcrossCheckpointsAndRestarts() {
+        long beforeRestart;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, settings)) {
+            manager.createTask("Задача 1", "Описание");
+            manager.createTask("Задача 2", "Описание");
+            assertEquals(2, manager.getLastSequence());
+            manager.checkpoint();
+            beforeRestart = manager.getLastSequence();
+        }
+
+        try (FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings)) {
+            assertEquals(beforeRestart, loaded.getLastSequence(), "Номер должен восстанавливаться из архива");
+            loaded.createTask("Задача 3", "Описание");
+            assertEquals(beforeRestart + 1, loaded.getLastSequence());
+        }
+    }
+
+    @Test
+    void recoveryShouldReplayUpToSequence() {
+        long afterFirst;
+        long afterRename;
+        long afterCheckpoint;
+        int taskId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, settings)) {
+            taskId = manager.createTask("Задача", "Описание");
+            afterFirst = manager.getLastSequence();
+            Task task = manager.getTask(taskId);
+            task.setName("Переименованная");
+            manager.updateTask(task);
+            afterRename = manager.getLastSequence();
+            manager.checkpoint();
+            manager.createTask("После снимка", "Описание");
+            afterCheckpoint = manager.getLastSequence();
+            manager.deleteTask(taskId);
+        }
+
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, settings,
+                RecoveryPoint.atSequence(afterFirst))) {
+            assertEquals("Задача", recovered.getTask(taskId).getName());
+            assertEquals(1, recovered.getAllTasks().size());
+        }
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, settings,
+                RecoveryPoint.atSequence(afterRename))) {
+            assertEquals("Переименованная", recovered.getTask(taskId).getName());
+        }
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, settings,
+                RecoveryPoint.atSequence(afterCheckpoint))) {
+            assertEquals(2, recovered.getAllTasks().size(), "Записи после снимка применяются до точки");
+        }
+        try (FileBackedTaskManager latest = FileBackedTaskManager.loadFromFile(file, settings)) {
+            assertEquals(1, latest.getAllTasks().size(), "Восстановление без изменений не трогает доску");
+            assertNull(latest.getTask(taskId));
+        }
+    }
+
+    @Test
+    void recoveryShouldReplayUpToTime() throws InterruptedException {
+        long betweenChanges;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, settings)) {
+            manager.createTask("Первая", "Описание");
+            manager.checkpoint();
+            manager.createTask("Вторая", "Описание");
+            Thread.sleep(5);
+            betweenChanges = System.currentTimeMillis();
+            Thread.sleep(5);
+            manager.createTask("Третья", "Описание");
+        }
+
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, settings,
+                RecoveryPoint.atTime(betweenChanges))) {
+            assertEquals(2, recovered.getAllTasks().size());
+        }
+    }
+
+    @Test
+    void firstChangeAfterRecoveryShouldRollBackBoard() {
+        long point;
+        long highWater;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, settings)) {
+            manager.createTask("Нужная", "Описание");
+            point = manager.getLastSequence();
+            manager.deleteAllTasks();
+            highWater = manager.getLastSequence();
+        }
+
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, settings,
+                RecoveryPoint.atSequence(point))) {
+            recovered.createTask("Новая", "Описание");
+            assertEquals(highWater + 1, recovered.getLastSequence(), "Нумерация продолжается после всех изменений");
+        }
+
+        try (FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings)) {
+            assertEquals(2, loaded.getAllTasks().size(), "Доска откатывается к точке восстановления");
+        }
+        // Состояние до отката тоже остается в архиве
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, settings,
+                RecoveryPoint.atSequence(highWater))) {
+            assertTrue(recovered.getAllTasks().isEmpty());
+        }
+    }
+
+    @Test
+    void pointOutsideRetentionShouldFail() throws InterruptedException {
+        PersistenceSettings shortRetention = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.JOURNAL)
+                .withRecoveryArchive(1);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, shortRetention)) {
+            manager.createTask("Задача 1", "Описание");
+            manager.checkpoint();
+            Thread.sleep(5);
+            manager.createTask("Задача 2", "Описание");
+            manager.checkpoint();
+            Thread.sleep(5);
+            manager.createTask("Задача 3", "Описание");
+            manager.checkpoint();
+        }
+
+        assertThrows(FileBackedTaskManager.ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(file, shortRetention, RecoveryPoint.atSequence(1)));
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, shortRetention,
+                RecoveryPoint.atSequence(3))) {
+            assertEquals(3, recovered.getAllTasks().size());
+        }
+    }
+
+    @Test
+    void compactedSegmentsShouldStayRecoverable() {
+        PersistenceSettings compacting = settings.withCompaction(1024, 0);
+        long point = 0;
+        int taskId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, compacting)) {
+            taskId = manager.createTask("Задача", "Описание");
+            for (int i = 0; i < 100; i++) {
+                Task task = manager.getTask(taskId);
+                task.setName("Версия " + i);
+                manager.updateTask(task);
+                if (i == 10) {
+                    point = manager.getLastSequence();
+                }
+            }
+            manager.compact();
+        }
+
+        try (FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, compacting,
+                RecoveryPoint.atSequence(point))) {
+            assertEquals("Версия 10", recovered.getTask(taskId).getName());
+        }
+    }
+
+    @Test
+    void recoveryShouldRequireJournalModeWithArchive() {
+        assertThrows(IllegalArgumentException.class, () -> FileBackedTaskManager.loadFromFile(file,
+                PersistenceSettings.defaults().withMode(PersistenceMode.JOURNAL), RecoveryPoint.atSequence(1)));
+        assertThrows(IllegalArgumentException.class, () -> FileBackedTaskManager.loadFromFile(file,
+                settings, null));
+        assertThrows(IllegalArgumentException.class, () -> RecoveryPoint.atSequence(-1));
+        assertThrows(IllegalArgumentException.class, () -> settings.withRecoveryArchive(0));
+    }
+}
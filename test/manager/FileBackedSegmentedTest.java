@@ -0,0 +1,180 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.LoadReport;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.SnapshotFormat;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedSegmentedTest {
+
+    private static final int SEGMENT_SIZE = 16;
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+    private File segmentsDir;
+    private PersistenceSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("tasks.csv").toFile();
+        segmentsDir = new File(file.getPath() + ".segments");
+        settings = PersistenceSettings.defaults()
+                .withMode(PersistenceMode.SEGMENTED)
+                .withSegmentSize(SEGMENT_SIZE);
+    }
+
+    @Test
+    void shouldRestoreStateFromSegments() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        int taskId = manager.createTask("Задача", "Описание, с запятой");
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача 1", "Описание", epicId);
+        manager.createSubtask("Подзадача 2", "Описание", epicId);
+        manager.getTask(taskId);
+        manager.getEpic(epicId);
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals("Описание, с запятой", loaded.getTask(taskId).getDescription());
+        assertEquals(2, loaded.getEpic(epicId).getSubtaskIds().size());
+        assertEquals(LoadReport.ChecksumStatus.VERIFIED, loaded.getLoadReport().getChecksumStatus());
+        assertFalse(file.exists(), "Общий файл снимка в режиме сегментов не пишется");
+    }
+
+    @Test
+    void flushShouldRewriteOnlyDirtySegments() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                settings.withCoalescing(1_000, 0));
+        for (int i = 0; i < SEGMENT_SIZE * 10; i++) {
+            manager.createTask("Задача " + i, "Описание задачи номер " + i);
+        }
+        manager.flush();
+        long fullFlushBytes = manager.getMetrics().getLastFlushBytes();
+        assertEquals(directorySize(), fullFlushBytes, "Первый сброс записывает все сегменты");
+
+        Task task = manager.getAllTasks().getFirst();
+        task.setStatus(TaskStatus.DONE);
+        manager.updateTask(task);
+        manager.flush();
+
+        long incrementalBytes = manager.getMetrics().getLastFlushBytes();
+        assertTrue(incrementalBytes > 0);
+        assertTrue(incrementalBytes * 5 < fullFlushBytes,
+                "Изменение одной задачи не должно перезаписывать все сегменты: " + incrementalBytes);
+        assertEquals(2, manager.getMetrics().getFlushCount());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(SEGMENT_SIZE * 10, loaded.getAllTasks().size());
+        assertEquals(TaskStatus.DONE, loaded.getTask(task.getId()).getStatus());
+    }
+
+    @Test
+    void shouldPersistDeletionsAndRemoveEmptySegments() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        int epicId = manager.createEpic("Эпик", "Описание");
+        for (int i = 0; i < SEGMENT_SIZE * 2; i++) {
+            manager.createSubtask("Подзадача " + i, "Описание", epicId);
+        }
+        int taskId = manager.createTask("Задача", "Описание");
+        assertEquals(3, segmentCount());
+
+        manager.deleteEpic(epicId);
+        assertEquals(1, segmentCount(), "Опустевшие сегменты должны удаляться");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertTrue(loaded.getAllEpics().isEmpty());
+        assertTrue(loaded.getAllSubtasks().isEmpty());
+        assertNotNull(loaded.getTask(taskId));
+    }
+
+    @Test
+    void shouldUpdateEpicStatusAfterDeletingAllSubtasks() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        var subtask = manager.getAllSubtasks().getFirst();
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+
+        manager.deleteAllSubtasks();
+
+        Epic loaded = FileBackedTaskManager.loadFromFile(file, settings).getEpic(epicId);
+        assertEquals(TaskStatus.NEW, loaded.getStatus());
+        assertTrue(loaded.getSubtaskIds().isEmpty());
+    }
+
+    @Test
+    void shouldMigrateFromSingleSnapshot() {
+        FileBackedTaskManager legacy = new FileBackedTaskManager(file);
+        int taskId = legacy.createTask("Старая задача", "Описание");
+        legacy.getTask(taskId);
+        legacy.createTask("Вторая задача", "Описание");
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, settings);
+        int newId = manager.createTask("Новая задача", "Описание");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(3, loaded.getAllTasks().size());
+        assertNotNull(loaded.getTask(newId));
+        assertEquals(taskId, loaded.getHistory().getFirst().getId());
+    }
+
+    @Test
+    void shouldSupportBinarySegments() {
+        PersistenceSettings binary = settings.withSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, binary);
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(1, loaded.getEpic(epicId).getSubtaskIds().size());
+    }
+
+    @Test
+    void snapshotModeShouldReportBytesPerFlush() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.createTask("Задача", "Описание");
+        manager.createTask("Задача", "Описание");
+
+        assertEquals(2, manager.getMetrics().getFlushCount());
+        assertEquals(file.length(), manager.getMetrics().getLastFlushBytes());
+    }
+
+    @Test
+    void shouldRejectInvalidSegmentSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PersistenceSettings.defaults().withSegmentSize(0));
+    }
+
+    private long segmentCount() {
+        File[] files = segmentsDir.listFiles((dir, name) -> name.startsWith("segment-"));
+        return files == null ? 0 : files.length;
+    }
+
+    private long directorySize() {
+        long size = 0;
+        for (File f : List.of(segmentsDir.listFiles())) {
+            size += f.length();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,129 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.LoadReport;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBackedShardedTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+    private File shardsDir;
+    private PersistenceSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("tasks.csv").toFile();
+        shardsDir = new File(file.getPath() + ".shards");
+        settings = PersistenceSettings.defaults().withMode(PersistenceMode.SHARDED);
+    }
+
+    @Test
+    void shouldRestoreStateFromShards() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        int taskId = manager.createTask("Задача", "Описание, с запятой");
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createSubtask("Подзадача 1", "Описание", epicId);
+        manager.getEpic(epicId);
+        manager.getTask(taskId);
+        manager.createSubtask("Подзадача 2", "Описание", epicId);
+        manager.close();
+
+        for (String name : new String[] {"task", "epic", "subtask", "history"}) {
+            assertTrue(new File(shardsDir, name).exists(), "Нет файла " + name);
+        }
+        assertFalse(file.exists(), "Общий файл снимка в режиме разделов не пишется");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(2, loaded.getHistory().size());
+        assertEquals(epicId, loaded.getHistory().getFirst().getId());
+        assertEquals("Описание, с запятой", loaded.getTask(taskId).getDescription());
+        assertEquals(2, loaded.getEpic(epicId).getSubtaskIds().size());
+        assertEquals(LoadReport.ChecksumStatus.VERIFIED, loaded.getLoadReport().getChecksumStatus());
+    }
+
+    @Test
+    void subtaskChangeShouldNotRewriteTasks() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        manager.createTask("Задача", "Описание");
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        File taskFile = new File(shardsDir, "task");
+        File subtaskFile = new File(shardsDir, "subtask");
+        File epicFile = new File(shardsDir, "epic");
+        // Файлы пишутся атомарной заменой, поэтому перезапись сбрасывает отметку времени
+        for (File shard : new File[] {taskFile, subtaskFile, epicFile}) {
+            assertTrue(shard.setLastModified(0));
+        }
+
+        Subtask subtask = manager.getAllSubtasks().getFirst();
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+
+        assertEquals(0, taskFile.lastModified(), "Файл задач не должен перезаписываться");
+        assertNotEquals(0, subtaskFile.lastModified());
+        assertNotEquals(0, epicFile.lastModified(), "Статус эпика изменился вместе с подзадачей");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(TaskStatus.DONE, loaded.getEpic(epicId).getStatus());
+        assertEquals(1, loaded.getAllTasks().size());
+    }
+
+    @Test
+    void shouldPersistDeletions() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        int taskId = manager.createTask("Задача", "Описание");
+
+        manager.deleteEpic(epicId);
+        manager.deleteTask(taskId);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertTrue(loaded.getAllEpics().isEmpty());
+        assertTrue(loaded.getAllSubtasks().isEmpty());
+        assertTrue(loaded.getAllTasks().isEmpty());
+    }
+
+    @Test
+    void shouldMigrateFromSingleSnapshot() {
+        FileBackedTaskManager legacy = new FileBackedTaskManager(file);
+        int epicId = legacy.createEpic("Эпик", "Описание");
+        legacy.createSubtask("Подзадача", "Описание", epicId);
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, settings);
+        manager.createTask("Новая задача", "Описание");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(1, loaded.getEpic(epicId).getSubtaskIds().size());
+    }
+
+    @Test
+    void corruptedShardShouldFailLoading() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        manager.createTask("Задача", "Описание");
+        try (RandomAccessFile shard = new RandomAccessFile(new File(shardsDir, "task"), "rw")) {
+            shard.seek(0);
+            shard.write('X');
+        }
+
+        assertThrows(FileBackedTaskManager.ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(file, settings));
+    }
+}
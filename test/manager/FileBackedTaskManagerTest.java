@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.List;
 
@@ -32,6 +33,7 @@ public class FileBackedTaskManagerTest {
         if (tempFile.exists()) {
             tempFile.delete();
         }
+        new File(tempFile.getPath() + ".views").delete();
     }
 
     @Test
@@ -285,4 +287,78 @@ public class FileBackedTaskManagerTest {
         assertEquals("Задача с пустым описанием", loadedTask.getName());
         assertEquals("", loadedTask.getDescription());
     }
+
+    @Test
+    void shouldLoadMultilineFieldsFromSnapshot() {
+        // Поле в кавычках содержит переводы строк и пустую строку
+        String description = "Первая строка\n\nТретья строка, с \"кавычками\"";
+        int taskId = manager.createTask("Задача", description);
+        int epicId = manager.createEpic("Эпик", "Описание\nэпика");
+        manager.getTask(taskId);
+        manager.createSubtask("Подзадача", "Описание", epicId);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(description, loadedManager.getTask(taskId).getDescription());
+        assertEquals("Описание\nэпика", loadedManager.getEpic(epicId).getDescription());
+        assertEquals(1, loadedManager.getEpicSubtasks(epicId).size());
+        assertEquals(taskId, loadedManager.getHistory().getFirst().getId());
+    }
+
+    @Test
+    void shouldLoadSnapshotWithWindowsLineEndings() throws IOException {
+        Files.writeString(tempFile.toPath(),
+                "id,type,name,status,description,epic\r\n"
+                        + "1,TASK,Задача,DONE,Описание,\r\n"
+                        + "2,EPIC,Эпик,NEW,Описание эпика,\r\n"
+                        + "3,SUBTASK,Подзадача,NEW,Описание,2\r\n"
+                        + "\r\n"
+                        + "3,1");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(TaskStatus.DONE, loadedManager.getAllTasks().getFirst().getStatus());
+        assertEquals(1, loadedManager.getEpicSubtasks(2).size());
+        assertEquals(2, loadedManager.getHistory().size());
+    }
+
+    @Test
+    void shouldWriteEscapedRowsAndNonAsciiCharacters() throws IOException {
+        String name = "Задача \"в кавычках\", 😀";
+        String description = "Возврат\rкаретки и символы €, ß";
+        int taskId = manager.createTask(name, description);
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+
+        String content = Files.readString(tempFile.toPath(), StandardCharsets.UTF_8);
+        assertTrue(content.contains(taskId + ",TASK,\"Задача \"\"в кавычках\"\", 😀\",NEW,"),
+                "Поле должно быть в кавычках с удвоенными кавычками");
+        assertTrue(content.contains(",SUBTASK,Подзадача,NEW,Описание," + epicId + "\n"));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(name, loadedManager.getTask(taskId).getName());
+        assertEquals(description, loadedManager.getTask(taskId).getDescription());
+    }
+
+    @Test
+    void shouldParseEdgeCaseRecords() throws IOException {
+        Files.writeString(tempFile.toPath(),
+                "id,type,name,status,description,epic\n"
+                        + "  1,TASK,Задача,NEW,,  \n"
+                        + "\"2\",EPIC,\"Эпик, \"\"главный\"\"\",IN_PROGRESS,Описание,\n"
+                        + "3,SUBTASK,Подзадача,DONE,Описание, 2 ,лишнее поле\n"
+                        + "4,SUBTASK,Без эпика,NEW,Описание,\n"
+                        + "5,TASK,Без описания\n"
+                        + "x,TASK,Неверный id,NEW,Описание,\n"
+                        + "\n"
+                        + "1");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals("", loadedManager.getTask(1).getDescription());
+        assertEquals("Эпик, \"главный\"", loadedManager.getEpic(2).getName());
+        assertEquals(2, loadedManager.getSubtask(3).getEpicId());
+        assertEquals(List.of(3), loadedManager.getEpic(2).getSubtaskIds());
+        assertEquals(3, loadedManager.getLoadReport().getSkippedRecords());
+    }
 }
@@ -0,0 +1,143 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.InMemoryTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.SnapshotFormat;
+import main.ru.practicum.kanban.manager.StripedTaskManager;
+import main.ru.practicum.kanban.manager.TaskManager;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты выдачи идентификаторов и сохранения следующего id в снимке.
+ */
+public class IdAllocationTest {
+    private static final int THREADS = 8;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void singleThreadShouldReceiveSequentialIds() {
+        TaskManager manager = new InMemoryTaskManager();
+        assertEquals(1, manager.createTask("Задача", "Описание"));
+        assertEquals(2, manager.createEpic("Эпик", "Описание"));
+        manager.createSubtask("Подзадача", "Описание", 2);
+        assertEquals(4, manager.createTask("Задача", "Описание"));
+    }
+
+    @Test
+    void concurrentCreationWithoutLocksShouldNotRepeatIds() throws Exception {
+        TaskManager manager = new StripedTaskManager();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Integer> ids = new ArrayList<>();
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    List<Integer> created = new ArrayList<>();
+                    for (int i = 0; i < 1000; i++) {
+                        created.add(i % 2 == 0
+                                ? manager.createTask("Задача", "Описание")
+                                : manager.createEpic("Эпик", "Описание"));
+                    }
+                    return created;
+                }));
+            }
+            for (Future<List<Integer>> future : futures) {
+                ids.addAll(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(ids.size(), new HashSet<>(ids).size(), "Идентификаторы не должны повторяться");
+        assertEquals(THREADS * 500, manager.getAllTasks().size());
+        assertEquals(THREADS * 500, manager.getAllEpics().size());
+    }
+
+    @Test
+    void failedImportShouldNotConsumeIds() {
+        TaskManager manager = new InMemoryTaskManager();
+        Subtask broken = new Subtask("Подзадача", "Описание", 999);
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.importTasks(Stream.of(new Task("Задача", "Описание"), broken)));
+        assertEquals(1, manager.createTask("Задача", "Описание"), "Неудачный импорт не должен расходовать id");
+    }
+
+    @Test
+    void csvSnapshotShouldKeepDeletedIdsRetired() {
+        assertDeletedIdNotReused(PersistenceSettings.defaults(), PersistenceSettings.defaults());
+    }
+
+    @Test
+    void parallelCsvLoadShouldReadNextId() {
+        assertDeletedIdNotReused(PersistenceSettings.defaults(), PersistenceSettings.defaults().withParallelLoad(3));
+    }
+
+    @Test
+    void binarySnapshotShouldKeepDeletedIdsRetired() {
+        PersistenceSettings binary = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.BINARY);
+        assertDeletedIdNotReused(binary, binary);
+        assertDeletedIdNotReused(binary, binary.withMemoryMappedLoad(true));
+    }
+
+    @Test
+    void partitionedSnapshotsShouldKeepDeletedIdsRetired() {
+        for (PersistenceMode mode : new PersistenceMode[] {PersistenceMode.SEGMENTED, PersistenceMode.SHARDED}) {
+            PersistenceSettings settings = PersistenceSettings.defaults().withMode(mode);
+            assertDeletedIdNotReused(settings, settings);
+        }
+    }
+
+    @Test
+    void snapshotWithoutNextIdShouldContinueAfterLoadedIds() throws IOException {
+        File file = tempDir.resolve("legacy.csv").toFile();
+        Files.writeString(file.toPath(),
+                "id,type,name,status,description,epic\n"
+                        + "3,TASK,Задача,NEW,Описание,\n"
+                        + "7,EPIC,Эпик,NEW,Описание,\n"
+                        + "\n"
+                        + "3\n");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(8, loaded.createTask("Новая", "Описание"));
+        assertEquals(9, loaded.createEpic("Новый эпик", "Описание"));
+    }
+
+    // Удаленный последний id не выдается повторно после перезагрузки, а остаток
+    // блока идентификаторов не пропускается
+    private void assertDeletedIdNotReused(PersistenceSettings writeSettings, PersistenceSettings loadSettings) {
+        File file = tempDir.resolve("tasks-" + System.nanoTime() + ".csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, writeSettings);
+        manager.createTask("Задача", "Описание");
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        int last = manager.createTask("Последняя", "Описание");
+        manager.deleteTask(last);
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, loadSettings);
+        assertEquals(last + 1, loaded.createTask("Новая", "Описание"),
+                "Следующий id должен восстанавливаться из снимка");
+        loaded.close();
+    }
+}
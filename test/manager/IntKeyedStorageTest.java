@@ -0,0 +1,123 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.InMemoryTaskManager;
+import main.ru.practicum.kanban.manager.TaskManager;
+import main.ru.practicum.kanban.model.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты хранилищ менеджера на таблицах с ключами int: порядок обхода,
+ * удаление с последующим добавлением и совпадающие ячейки.
+ */
+public class IntKeyedStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sequentialIdsShouldBeListedInAscendingOrder() {
+        TaskManager manager = new InMemoryTaskManager();
+        List<Integer> created = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            created.add(manager.createTask("Задача " + i, "Описание"));
+        }
+
+        List<Integer> listed = new ArrayList<>();
+        for (Task task : manager.getAllTasks()) {
+            listed.add(task.getId());
+        }
+        assertEquals(created, listed, "Задачи должны обходиться в порядке id, как в HashMap");
+    }
+
+    @Test
+    void deletedSlotsShouldBeReusedWithoutLosingRecords() {
+        TaskManager manager = new InMemoryTaskManager();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add(manager.createTask("Задача " + i, "Описание"));
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            manager.deleteTask(ids.get(i));
+        }
+        for (int i = 0; i < 5000; i++) {
+            ids.add(manager.createTask("Новая " + i, "Описание"));
+        }
+
+        assertEquals(7500, manager.getAllTasks().size());
+        for (int i = 0; i < ids.size(); i++) {
+            Task task = manager.getTask(ids.get(i));
+            if (i < 5000 && i % 2 == 0) {
+                assertNull(task, "Удаленная задача не должна находиться");
+            } else {
+                assertNotNull(task, "Задача " + ids.get(i) + " должна находиться");
+                assertEquals(ids.get(i), task.getId());
+            }
+        }
+
+        manager.deleteAllTasks();
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertTrue(manager.getHistory().isEmpty(), "История должна очищаться вместе с задачами");
+        assertEquals(ids.get(ids.size() - 1) + 1, manager.createTask("После очистки", "Описание"));
+    }
+
+    @Test
+    void collidingIdsFromFileShouldStayReachable() throws IOException {
+        // После перемешивания старших бит (как в HashMap) у всех id одинаковые
+        // младшие 16 бит: записи попадают в одну ячейку и лежат цепочкой
+        StringBuilder content = new StringBuilder("id,type,name,status,description,epic\n");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            int id = i << 16 | (i ^ 7);
+            ids.add(id);
+            content.append(id).append(",TASK,Задача ").append(i).append(",NEW,Описание,\n");
+        }
+        content.append("\n\n");
+        File file = tempDir.resolve("tasks.csv").toFile();
+        Files.writeString(file.toPath(), content.toString());
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(200, manager.getAllTasks().size());
+        for (int i = 0; i < ids.size(); i += 3) {
+            manager.deleteTask(ids.get(i));
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            Task task = manager.getTask(ids.get(i));
+            assertEquals(i % 3 != 0, task != null, "Неверный результат поиска id " + ids.get(i));
+        }
+        manager.close();
+    }
+
+    @Test
+    void historyShouldStayConsistentUnderRepeatedViews() {
+        TaskManager manager = new InMemoryTaskManager();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(manager.createTask("Задача " + i, "Описание"));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int id : ids) {
+                manager.getTask(id);
+            }
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            manager.deleteTask(ids.get(i));
+        }
+
+        List<Task> history = manager.getHistory();
+        assertEquals(150, history.size());
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(ids.get(2 * i + 1), history.get(i).getId());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.ExportFormat;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.InMemoryTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceSettings;
+import main.ru.practicum.kanban.manager.TaskManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты потокового экспорта в CSV и JSON Lines.
+ */
+public class StreamingExportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void csvExportShouldContainHeaderAndAllTasks() throws IOException {
+        TaskManager manager = new InMemoryTaskManager();
+        int epicId = manager.createEpic("Эпик", "Описание эпика");
+        manager.createTask("Задача, с запятой", "Описание \"в кавычках\"");
+        manager.createSubtask("Подзадача", "Описание подзадачи", epicId);
+
+        List<String> lines = export(manager, ExportFormat.CSV).lines().toList();
+
+        assertEquals(List.of(
+                "id,type,name,status,description,epic",
+                "2,TASK,\"Задача, с запятой\",NEW,\"Описание \"\"в кавычках\"\"\",",
+                "1,EPIC,Эпик,NEW,Описание эпика,",
+                "3,SUBTASK,Подзадача,NEW,Описание подзадачи,1"), lines);
+    }
+
+    @Test
+    void jsonLinesExportShouldEscapeStrings() throws IOException {
+        TaskManager manager = new InMemoryTaskManager();
+        int epicId = manager.createEpic("Эпик", "Строка 1\nСтрока 2\t\u0001");
+        manager.createSubtask("Путь C:\\tmp", "\"Цитата\"", epicId);
+
+        List<String> lines = export(manager, ExportFormat.JSON_LINES).lines().toList();
+
+        assertEquals(List.of(
+                "{\"id\":1,\"type\":\"EPIC\",\"name\":\"Эпик\",\"status\":\"NEW\","
+                        + "\"description\":\"Строка 1\\nСтрока 2\\t\\u0001\"}",
+                "{\"id\":2,\"type\":\"SUBTASK\",\"name\":\"Путь C:\\\\tmp\",\"status\":\"NEW\","
+                        + "\"description\":\"\\\"Цитата\\\"\",\"epic\":1}"), lines);
+    }
+
+    @Test
+    void exportShouldNotAffectHistory() throws IOException {
+        TaskManager manager = new InMemoryTaskManager();
+        int id = manager.createTask("Задача", "Описание");
+        manager.createTask("Другая", "Описание");
+        manager.getTask(id);
+
+        export(manager, ExportFormat.JSON_LINES);
+
+        assertEquals(1, manager.getHistory().size(), "Экспорт не должен попадать в историю просмотров");
+    }
+
+    @Test
+    void exportToChannelShouldMatchStreamExport() throws IOException {
+        TaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < 1000; i++) {
+            manager.createTask("Задача " + i, "Описание " + i);
+        }
+        File target = tempDir.resolve("export.jsonl").toFile();
+
+        try (FileChannel channel = FileChannel.open(target.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            manager.export(ExportFormat.JSON_LINES, channel);
+        }
+
+        assertEquals(export(manager, ExportFormat.JSON_LINES), Files.readString(target.toPath()));
+    }
+
+    @Test
+    void exportShouldLoadLazyDescriptions() throws IOException {
+        File file = tempDir.resolve("tasks.csv").toFile();
+        PersistenceSettings lazy = PersistenceSettings.defaults().withLazyDescriptions(2);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file, lazy)) {
+            manager.createTask("Задача", "Длинное описание");
+        }
+
+        try (FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, lazy)) {
+            String csv = export(loaded, ExportFormat.CSV);
+            assertTrue(csv.contains("1,TASK,Задача,NEW,Длинное описание,"), "Описание должно читаться из файла");
+        }
+    }
+
+    @Test
+    void exportShouldRejectMissingArguments() {
+        TaskManager manager = new InMemoryTaskManager();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.export(null, new ByteArrayOutputStream()));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.export(ExportFormat.CSV, (OutputStream) null));
+    }
+
+    private static String export(TaskManager manager, ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manager.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
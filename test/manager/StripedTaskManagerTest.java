@@ -0,0 +1,181 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.Managers;
+import main.ru.practicum.kanban.manager.StripedTaskManager;
+import main.ru.practicum.kanban.manager.TaskManager;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты менеджера задач с блокировками по полосам идентификаторов.
+ */
+public class StripedTaskManagerTest {
+    private static final int THREADS = 8;
+
+    @Test
+    void getStripedShouldReturnStripedManager() {
+        assertInstanceOf(StripedTaskManager.class, Managers.getStriped());
+        assertThrows(IllegalArgumentException.class, () -> new StripedTaskManager(0));
+    }
+
+    @Test
+    void concurrentSubtaskCreationShouldKeepEpicListsConsistent() throws Exception {
+        TaskManager manager = new StripedTaskManager(4);
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            epicIds.add(manager.createEpic("Эпик " + i, "Описание"));
+        }
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 500; i++) {
+                // Потоки создают подзадачи во всех эпиках вперемешку
+                manager.createSubtask("Подзадача " + thread + "-" + i, "Описание", epicIds.get((thread + i) % THREADS));
+            }
+        });
+
+        int total = 0;
+        for (int epicId : epicIds) {
+            List<Integer> subtaskIds = manager.getEpic(epicId).getSubtaskIds();
+            assertEquals(subtaskIds.size(), new HashSet<>(subtaskIds).size());
+            for (Subtask subtask : manager.getEpicSubtasks(epicId)) {
+                assertEquals(epicId, subtask.getEpicId());
+            }
+            total += subtaskIds.size();
+        }
+        assertEquals(THREADS * 500, total);
+        assertEquals(total, manager.getAllSubtasks().size());
+    }
+
+    @Test
+    void epicStatusShouldFollowSubtasksUnderContention() throws Exception {
+        TaskManager manager = new StripedTaskManager(2);
+        int epicId = manager.createEpic("Эпик", "Описание");
+        for (int i = 0; i < THREADS; i++) {
+            manager.createSubtask("Подзадача " + i, "Описание", epicId);
+        }
+        List<Integer> subtaskIds = manager.getEpic(epicId).getSubtaskIds();
+
+        runInParallel(thread -> {
+            int subtaskId = subtaskIds.get(thread);
+            for (int i = 0; i < 500; i++) {
+                Subtask subtask = new Subtask("Подзадача " + thread, "Описание", epicId);
+                subtask.setId(subtaskId);
+                subtask.setStatus(i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.NEW);
+                manager.updateSubtask(subtask);
+            }
+            Subtask done = new Subtask("Подзадача " + thread, "Описание", epicId);
+            done.setId(subtaskId);
+            done.setStatus(TaskStatus.DONE);
+            manager.updateSubtask(done);
+        });
+
+        assertEquals(TaskStatus.DONE, manager.getEpic(epicId).getStatus());
+    }
+
+    @Test
+    void bulkDeletesShouldNotBreakConcurrentUpdates() throws Exception {
+        TaskManager manager = new StripedTaskManager();
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        int subtaskId = manager.getEpic(epicId).getSubtaskIds().get(0);
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 300; i++) {
+                if (thread == 0 && i % 50 == 0) {
+                    manager.deleteAllSubtasks();
+                } else if (thread == 1) {
+                    manager.createSubtask("Новая " + i, "Описание", epicId);
+                } else {
+                    Subtask subtask = new Subtask("Подзадача", "Описание", epicId);
+                    subtask.setId(subtaskId);
+                    subtask.setStatus(TaskStatus.IN_PROGRESS);
+                    manager.updateSubtask(subtask);
+                    manager.getAllEpics();
+                }
+            }
+        });
+
+        Epic epic = manager.getEpic(epicId);
+        assertEquals(epic.getSubtaskIds().size(), manager.getEpicSubtasks(epicId).size(),
+                "Список подзадач эпика должен совпадать с хранилищем");
+        assertEquals(manager.getAllSubtasks().size(), epic.getSubtaskIds().size());
+    }
+
+    @Test
+    void creationRacingWithDeleteAllShouldKeepIndexConsistent() throws Exception {
+        TaskManager manager = new StripedTaskManager(4);
+        List<Integer> created = Collections.synchronizedList(new ArrayList<>());
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 500; i++) {
+                if (thread == 0) {
+                    manager.deleteAllTasks();
+                    manager.deleteAllEpics();
+                } else {
+                    created.add(i % 2 == 0
+                            ? manager.createTask("Задача", "Описание")
+                            : manager.createEpic("Эпик", "Описание"));
+                }
+            }
+        });
+        manager.deleteAllTasks();
+        manager.deleteAllEpics();
+
+        for (int id : created) {
+            assertNull(manager.getAny(id), "После удаления всех задач индекс не должен находить id " + id);
+        }
+    }
+
+    @Test
+    void subtaskMovedToAnotherEpicShouldLockBothEpics() {
+        TaskManager manager = new StripedTaskManager(4);
+        int first = manager.createEpic("Первый", "Описание");
+        int second = manager.createEpic("Второй", "Описание");
+        manager.createSubtask("Подзадача", "Описание", first);
+        int subtaskId = manager.getEpic(first).getSubtaskIds().get(0);
+
+        Subtask moved = new Subtask("Подзадача", "Описание", second);
+        moved.setId(subtaskId);
+        moved.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(moved);
+
+        assertEquals(second, manager.getSubtask(subtaskId).getEpicId());
+        manager.deleteSubtask(subtaskId);
+        assertNull(manager.getSubtask(subtaskId));
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runInParallel(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    worker.run(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package manager;
+
+import main.ru.practicum.kanban.manager.ConcurrentTaskManager;
+import main.ru.practicum.kanban.manager.FileBackedTaskManager;
+import main.ru.practicum.kanban.manager.InMemoryTaskManager;
+import main.ru.practicum.kanban.manager.PersistenceMode;
+import main.ru.practicum.kanban.manager.StripedTaskManager;
+import main.ru.practicum.kanban.manager.TaskManager;
+import main.ru.practicum.kanban.model.Epic;
+import main.ru.practicum.kanban.model.Subtask;
+import main.ru.practicum.kanban.model.Task;
+import main.ru.practicum.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты поиска задачи любого типа по общему индексу (getAny).
+ */
+public class UnifiedIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void getAnyShouldReturnCopyOfMatchingType() {
+        for (TaskManager manager : List.of(new InMemoryTaskManager(), new ConcurrentTaskManager(),
+                new StripedTaskManager(2))) {
+            int taskId = manager.createTask("Задача", "Описание");
+            int epicId = manager.createEpic("Эпик", "Описание эпика");
+            manager.createSubtask("Подзадача", "Описание", epicId);
+            int subtaskId = manager.getEpicSubtasks(epicId).get(0).getId();
+
+            assertEquals(Task.class, manager.getAny(taskId).getClass());
+            Epic epic = assertInstanceOf(Epic.class, manager.getAny(epicId));
+            assertEquals(List.of(subtaskId), epic.getSubtaskIds());
+            Subtask subtask = assertInstanceOf(Subtask.class, manager.getAny(subtaskId));
+            assertEquals(epicId, subtask.getEpicId());
+            assertNull(manager.getAny(999));
+
+            // Возвращается копия: хранимая задача не меняется
+            manager.getAny(taskId).setName("Изменено");
+            assertEquals("Задача", manager.getAny(taskId).getName());
+        }
+    }
+
+    @Test
+    void getAnyShouldAddViewToHistory() {
+        TaskManager manager = new InMemoryTaskManager();
+        int taskId = manager.createTask("Задача", "Описание");
+        int epicId = manager.createEpic("Эпик", "Описание");
+
+        manager.getAny(epicId);
+        manager.getAny(taskId);
+        manager.getAny(999);
+
+        List<Task> history = manager.getHistory();
+        assertEquals(2, history.size(), "Отсутствующий id не должен попадать в историю");
+        assertEquals(epicId, history.get(0).getId());
+        assertEquals(taskId, history.get(1).getId());
+    }
+
+    @Test
+    void indexShouldFollowUpdatesAndDeletes() {
+        TaskManager manager = new InMemoryTaskManager();
+        int taskId = manager.createTask("Задача", "Описание");
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        int subtaskId = manager.getEpicSubtasks(epicId).get(0).getId();
+
+        Subtask done = new Subtask("Готово", "Описание", epicId);
+        done.setId(subtaskId);
+        done.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(done);
+        assertEquals("Готово", manager.getAny(subtaskId).getName());
+        assertEquals(TaskStatus.DONE, manager.getAny(epicId).getStatus());
+
+        // Удаление задачи по id эпика не затрагивает эпик
+        manager.deleteTask(epicId);
+        assertNotNull(manager.getAny(epicId));
+
+        manager.deleteEpic(epicId);
+        assertNull(manager.getAny(epicId));
+        assertNull(manager.getAny(subtaskId), "Подзадачи удаляются вместе с эпиком");
+
+        manager.deleteAllTasks();
+        assertNull(manager.getAny(taskId));
+    }
+
+    @Test
+    void importedRecordsShouldBeIndexed() {
+        TaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "Описание");
+        epic.setId(10);
+        List<Integer> ids = manager.importTasks(Stream.of(epic, new Subtask("Подзадача", "Описание", 10)));
+
+        assertInstanceOf(Epic.class, manager.getAny(ids.get(0)));
+        assertInstanceOf(Subtask.class, manager.getAny(ids.get(1)));
+
+        manager.deleteAllEpics();
+        assertNull(manager.getAny(ids.get(0)));
+        assertNull(manager.getAny(ids.get(1)));
+    }
+
+    @Test
+    void indexShouldBeRestoredFromSnapshotAndJournal() {
+        File file = tempDir.resolve("tasks.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL);
+        int taskId = manager.createTask("Задача", "Описание");
+        int epicId = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", epicId);
+        int subtaskId = manager.getEpicSubtasks(epicId).get(0).getId();
+        manager.checkpoint();
+        int removedId = manager.createTask("Удаляемая", "Описание");
+        manager.deleteTask(removedId);
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        assertEquals(Task.class, loaded.getAny(taskId).getClass());
+        assertInstanceOf(Epic.class, loaded.getAny(epicId));
+        assertInstanceOf(Subtask.class, loaded.getAny(subtaskId));
+        assertNull(loaded.getAny(removedId), "Удаление из журнала должно убирать запись из индекса");
+        assertEquals(3, loaded.getHistory().size());
+        loaded.close();
+    }
+}